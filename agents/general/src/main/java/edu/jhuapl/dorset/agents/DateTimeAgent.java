@@ -37,7 +37,7 @@ import java.text.DateFormatSymbols;
  * Agent for answering questions about the current date or time
  *
  */
-public class DateTimeAgent extends AbstractAgent {
+public class DateTimeAgent extends AbstractAgent implements CacheableAgent {
     private final Logger logger = LoggerFactory.getLogger(DateTimeAgent.class);
 
     private static final String DATE = "date";
@@ -80,6 +80,14 @@ public class DateTimeAgent extends AbstractAgent {
         return response;
     }
 
+    /**
+     * The current date and time are never cached
+     */
+    @Override
+    public long getCacheTimeToLive(AgentRequest request) {
+        return NO_CACHE;
+    }
+
     protected String getRequestType(String text) {
         text = text.toLowerCase();
         String type = UNKNOWN;
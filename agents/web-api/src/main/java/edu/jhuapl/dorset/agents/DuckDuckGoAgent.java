@@ -20,7 +20,9 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +38,7 @@ import edu.jhuapl.dorset.agents.Description;
 import edu.jhuapl.dorset.http.HttpClient;
 import edu.jhuapl.dorset.http.HttpRequest;
 import edu.jhuapl.dorset.http.HttpResponse;
-import edu.jhuapl.dorset.nlp.RuleBasedTokenizer;
-import edu.jhuapl.dorset.nlp.Tokenizer;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
 
 /**
  * DuckduckGo agent
@@ -46,13 +47,15 @@ import edu.jhuapl.dorset.nlp.Tokenizer;
  * data sources like Wikipedia and CrunchBase. Documentation on the api here:
  * https://duckduckgo.com/api
  */
-public class DuckDuckGoAgent extends AbstractAgent {
+public class DuckDuckGoAgent extends AbstractAgent implements CacheableAgent {
     private static final Logger logger = LoggerFactory.getLogger(DuckDuckGoAgent.class);
 
     private static final String SUMMARY =
                     "Get information about famous people, places, organizations.";
     private static final String EXAMPLE = "Who is Barack Obama?";
 
+    private static final long CACHE_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(24);
+
     private HttpClient client;
     private Set<String> dictionary = new HashSet<String>(
             Arrays.asList("what", "who", "is", "are", "a", "an", "the"));
@@ -67,17 +70,75 @@ public class DuckDuckGoAgent extends AbstractAgent {
         this.setDescription(new Description("general answers", SUMMARY, EXAMPLE));
     }
 
+    /**
+     * Answer a request
+     * <p>
+     * A request with a deadline fetches the data with
+     * {@link #requestData(String, Integer)} so that the http call is limited
+     * to the remaining time. If the data cannot be retrieved, the response
+     * has the status AGENT_INTERNAL_ERROR.
+     */
     @Override
     public AgentResponse process(AgentRequest request) {
         logger.debug("Handling the request: " + request.getText());
-        String requestText = request.getText();
-        String entityText = extractEntity(requestText);
-        String data = requestData(entityText);
+        String entityText = extractEntity(request.getAnalyzedText());
+        String data;
+        if (request.hasDeadline()) {
+            long remaining = request.getRemainingTime(TimeUnit.MILLISECONDS);
+            if (remaining <= 0) {
+                return new AgentResponse(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT);
+            }
+            data = requestData(entityText, (int) Math.min(remaining, Integer.MAX_VALUE));
+        } else {
+            data = requestData(entityText);
+        }
+        if (data == null) {
+            return new AgentResponse(ResponseStatus.Code.AGENT_INTERNAL_ERROR);
+        }
         return createResponse(data);
     }
 
+    /**
+     * Answers about people, places, and organizations rarely change
+     */
+    @Override
+    public long getCacheTimeToLive(AgentRequest request) {
+        return CACHE_TIME_TO_LIVE;
+    }
+
+    /**
+     * Get the json data about an entity
+     *
+     * @param entity  the name of the entity
+     * @return json string or null if the request failed
+     */
     protected String requestData(String entity) {
-        HttpResponse response = client.execute(HttpRequest.get(createUrl(entity)));
+        return fetchData(entity, null);
+    }
+
+    /**
+     * Get the json data about an entity within a time limit
+     * <p>
+     * Subclasses that override {@link #requestData(String)} should override
+     * this too, as requests with a deadline call this method instead.
+     *
+     * @param entity  the name of the entity
+     * @param timeout  the http timeout in milliseconds or null for no limit
+     * @return json string or null if the request failed
+     */
+    protected String requestData(String entity, Integer timeout) {
+        if (timeout == null) {
+            return requestData(entity);
+        }
+        return fetchData(entity, timeout);
+    }
+
+    private String fetchData(String entity, Integer timeout) {
+        HttpRequest httpRequest = HttpRequest.get(createUrl(entity));
+        if (timeout != null) {
+            httpRequest.setTimeout(timeout);
+        }
+        HttpResponse response = client.execute(httpRequest);
         if (response == null || response.isError()) {
             return null;
         }
@@ -104,11 +165,18 @@ public class DuckDuckGoAgent extends AbstractAgent {
     }
 
     /**
-     * Iterate over the words until we think we get to the name of the entity
+     * Analyze the sentence and extract the name of the entity
      */
     protected String extractEntity(String sentence) {
-        Tokenizer tokenizer = new RuleBasedTokenizer(true);
-        String[] words = tokenizer.tokenize(sentence);
+        return extractEntity(new AnalyzedText(sentence));
+    }
+
+    /**
+     * Iterate over the words until we think we get to the name of the entity
+     */
+    protected String extractEntity(AnalyzedText text) {
+        List<String> wordList = text.getWords();
+        String[] words = wordList.toArray(new String[wordList.size()]);
         int index = 0;
         for (index = 0; index < words.length; index++) {
             if (!dictionary.contains(words[index].toLowerCase())) {
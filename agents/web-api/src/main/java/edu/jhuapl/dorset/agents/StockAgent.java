@@ -21,6 +21,9 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -52,7 +55,7 @@ import edu.jhuapl.dorset.http.HttpClient;
 import edu.jhuapl.dorset.http.HttpRequest;
 import edu.jhuapl.dorset.http.HttpResponse;
 
-public class StockAgent extends AbstractAgent {
+public class StockAgent extends AbstractAgent implements CacheableAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(StockAgent.class);
 
@@ -68,6 +71,7 @@ public class StockAgent extends AbstractAgent {
     private HttpClient client;
     private TreeMap<String, CompanyInfo> stockSymbolMap;
     private static final int DAYS_IN_A_MONTH = 30;
+    private static final ZoneId MARKET_TIME_ZONE = ZoneId.of("America/New_York");
 
 
     /**
@@ -141,6 +145,16 @@ public class StockAgent extends AbstractAgent {
 
     }
 
+    /**
+     * Stock data is cached until the start of the next trading day
+     */
+    @Override
+    public long getCacheTimeToLive(AgentRequest request) {
+        ZonedDateTime now = ZonedDateTime.now(MARKET_TIME_ZONE);
+        ZonedDateTime nextDay = now.toLocalDate().plusDays(1).atStartOfDay(MARKET_TIME_ZONE);
+        return Duration.between(now, nextDay).toMillis();
+    }
+
     protected CompanyInfo findStockSymbol(String stockCompanyName) {
         CompanyInfo companyInfo = null;
         ArrayList<String> regexMatches = new ArrayList<String>();
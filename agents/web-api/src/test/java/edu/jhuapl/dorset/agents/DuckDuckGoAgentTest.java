@@ -83,4 +83,34 @@ public class DuckDuckGoAgentTest {
         assertEquals(urlBase + "Barack+Obama", DuckDuckGoAgent.createUrl("Barack Obama"));
     }
 
+    @Test
+    public void testOverriddenRequestDataIsUsed() {
+        Agent agent = new FileDuckDuckGoAgent("duckduckgo/barack_obama.json");
+        AgentResponse response = agent.process(new AgentRequest("Barack Obama"));
+
+        assertTrue(response.isSuccess());
+    }
+
+    @Test
+    public void testFailedRequestIsInternalError() {
+        Agent agent = new DuckDuckGoAgent(new FakeHttpClient(null));
+
+        AgentResponse response = agent.process(new AgentRequest("Barack Obama"));
+
+        assertEquals(ResponseStatus.Code.AGENT_INTERNAL_ERROR, response.getStatus().getCode());
+    }
+
+    private static class FileDuckDuckGoAgent extends DuckDuckGoAgent {
+        private String filename;
+
+        public FileDuckDuckGoAgent(String filename) {
+            super(new FakeHttpClient(null));
+            this.filename = filename;
+        }
+
+        @Override
+        protected String requestData(String entity) {
+            return FileReader.getFileAsString(filename);
+        }
+    }
 }
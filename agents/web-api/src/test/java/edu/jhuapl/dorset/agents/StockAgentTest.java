@@ -17,6 +17,7 @@
 package edu.jhuapl.dorset.agents;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -28,6 +29,7 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -55,6 +57,16 @@ public class StockAgentTest {
         }
     }
 
+    @Test
+    public void testCacheTimeToLive() {
+        StockAgent stocks = new StockAgent(mock(HttpClient.class), apikey);
+
+        long ttl = stocks.getCacheTimeToLive(new AgentRequest("stocks facebook"));
+
+        assertTrue(ttl > 0);
+        assertTrue(ttl <= TimeUnit.HOURS.toMillis(25));
+    }
+
     @Test
     public void testStockAgentExactMatch() {
         String keyword = "facebook, Inc.";
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.rest;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import edu.jhuapl.dorset.metrics.Histogram;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+
+/**
+ * Web representation of the application metrics
+ * <p>
+ * Histogram values are in nanoseconds.
+ */
+@XmlRootElement
+public class WebMetrics {
+    private final Map<String, Long> counters;
+    private final Map<String, Histogram.Snapshot> histograms;
+
+    /**
+     * Create the web metrics
+     *
+     * @param metrics  the metrics registry or null if there are no metrics
+     */
+    public WebMetrics(MetricsRegistry metrics) {
+        if (metrics == null) {
+            counters = Collections.emptyMap();
+            histograms = Collections.emptyMap();
+        } else {
+            counters = metrics.getCounts();
+            histograms = metrics.getSnapshots();
+        }
+    }
+
+    /**
+     * Get the counters
+     *
+     * @return map of counter name to count
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Get the histograms
+     *
+     * @return map of histogram name to statistics
+     */
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+}
@@ -16,12 +16,20 @@
  */
 package edu.jhuapl.dorset.rest;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 
 import org.slf4j.Logger;
@@ -30,41 +38,82 @@ import org.slf4j.LoggerFactory;
 import edu.jhuapl.dorset.Application;
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.Response;
+import edu.jhuapl.dorset.ResponseStatus;
 import edu.jhuapl.dorset.agents.Agent;
 import edu.jhuapl.dorset.agents.Description;
+import edu.jhuapl.dorset.agents.RemoteAgent;
+import edu.jhuapl.dorset.resilience.AdmissionControl;
+import edu.jhuapl.dorset.resilience.CircuitBreaker;
 
 @Path("/")
 public class WebService {
     private static final Logger logger = LoggerFactory.getLogger(WebService.class);
 
+    /** Header with the number of seconds to wait after an overload response */
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
     // If an Application is not injected, this will cause a server error ("Request failed.")
     @Inject
     private Application app;
 
     /**
      * Process a request
+     * <p>
+     * If the application is overloaded, this returns an HTTP 503 with a
+     * Retry-After header.
      *
      * @param req  the WebRequest payload
+     * @param timeout  optional time budget in milliseconds from the {@value RemoteAgent#TIMEOUT_HEADER} header
      * @return response
      */
     @POST
     @Path("/request")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public WebResponse process(WebRequest req) {
-        WebResponse webResp;
+    public WebResponse process(WebRequest req, @HeaderParam(RemoteAgent.TIMEOUT_HEADER) Long timeout) {
         Request request = new Request(req.getText());
+        if (timeout != null) {
+            request.setTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
         Response response = app.process(request);
-        if (response.isSuccess()) {
-            if (response.hasPayload()) {
-                webResp = new WebResponseWithPayload(response);    
-            } else {
-                webResp = new WebResponse(response);
+        if (isOverloaded(response)) {
+            throw createOverloadedException(createWebResponse(response));
+        }
+        return createWebResponse(response);
+    }
+
+    /**
+     * Process a batch of requests
+     *
+     * @param reqs  array of WebRequest payloads
+     * @param timeout  optional time budget in milliseconds from the {@value RemoteAgent#TIMEOUT_HEADER} header
+     * @return array of responses in the same order as the requests
+     *         (HTTP 503 if every request was rejected because of overload)
+     */
+    @POST
+    @Path("/requests")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public WebResponse[] processBatch(WebRequest[] reqs, @HeaderParam(RemoteAgent.TIMEOUT_HEADER) Long timeout) {
+        List<Request> requests = new ArrayList<Request>(reqs.length);
+        for (WebRequest req : reqs) {
+            Request request = new Request(req.getText());
+            if (timeout != null) {
+                request.setTimeout(timeout, TimeUnit.MILLISECONDS);
             }
-        } else {
-            webResp = new WebResponseWithError(response);
+            requests.add(request);
         }
-        return webResp;
+        List<Response> responses = app.processBatch(requests);
+        WebResponse[] webResps = new WebResponse[responses.size()];
+        boolean overloaded = !responses.isEmpty();
+        for (int i = 0; i < webResps.length; i++) {
+            webResps[i] = createWebResponse(responses.get(i));
+            overloaded &= isOverloaded(responses.get(i));
+        }
+        if (overloaded) {
+            throw createOverloadedException(webResps);
+        }
+        return webResps;
     }
 
     /**
@@ -92,6 +141,69 @@ public class WebService {
         return descriptions;
     }
 
+    /**
+     * Get the state of the agents' circuit breakers
+     *
+     * @return map of agent name to circuit state
+     */
+    @GET
+    @Path("/circuits")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, CircuitBreaker.State> getCircuits() {
+        if (app == null || app.getCircuitBreakers() == null) {
+            return Collections.emptyMap();
+        }
+        return app.getCircuitBreakers().getStates();
+    }
+
+    /**
+     * Get the counters and latency histograms of the application
+     *
+     * @return the metrics
+     */
+    @GET
+    @Path("/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public WebMetrics getMetrics() {
+        if (app == null) {
+            return new WebMetrics(null);
+        }
+        return new WebMetrics(app.getMetrics());
+    }
+
+    private boolean isOverloaded(Response response) {
+        return response.getStatus().getCode() == ResponseStatus.Code.OVERLOADED;
+    }
+
+    private WebApplicationException createOverloadedException(Object entity) {
+        long retryAfter = AdmissionControl.DEFAULT_RETRY_AFTER;
+        AdmissionControl admission = app.getAdmissionControl();
+        if (admission != null) {
+            retryAfter = Math.max(1, admission.getRetryAfter(TimeUnit.SECONDS));
+        }
+        javax.ws.rs.core.Response response = javax.ws.rs.core.Response
+                        .status(javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE)
+                        .header(RETRY_AFTER_HEADER, retryAfter)
+                        .type(MediaType.APPLICATION_JSON)
+                        .entity(entity)
+                        .build();
+        return new WebApplicationException(response);
+    }
+
+    private WebResponse createWebResponse(Response response) {
+        WebResponse webResp;
+        if (response.isSuccess()) {
+            if (response.hasPayload()) {
+                webResp = new WebResponseWithPayload(response);
+            } else {
+                webResp = new WebResponse(response);
+            }
+        } else {
+            webResp = new WebResponseWithError(response);
+        }
+        return webResp;
+    }
+
     /**
      * Use this to test if the web services are alive
      *
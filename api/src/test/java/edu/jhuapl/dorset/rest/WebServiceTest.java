@@ -19,6 +19,9 @@ package edu.jhuapl.dorset.rest;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -33,11 +36,17 @@ import org.glassfish.jersey.test.JerseyTest;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import edu.jhuapl.dorset.Application;
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.Response;
 import edu.jhuapl.dorset.ResponseStatus;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.agents.RemoteAgent;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+import edu.jhuapl.dorset.resilience.AdmissionControl;
+import edu.jhuapl.dorset.resilience.CircuitBreakerRegistry;
 
 public class WebServiceTest extends JerseyTest {
 
@@ -108,6 +117,99 @@ public class WebServiceTest extends JerseyTest {
         assertEquals(expected, response.readEntity(String.class));
     }
 
+    @Test
+    public void testRequestWithTimeoutHeader() {
+        Response resp = new Response("this is a test");
+        when(app.process(any(Request.class))).thenReturn(resp);
+
+        WebRequest wr = new WebRequest("why?");
+        Entity<WebRequest> body = Entity.entity(wr, MediaType.APPLICATION_JSON_TYPE);
+        javax.ws.rs.core.Response response = target("/request").request(MediaType.APPLICATION_JSON_TYPE)
+                        .header(RemoteAgent.TIMEOUT_HEADER, "5000").post(body);
+
+        assertEquals(200, response.getStatus());
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+        verify(app).process(captor.capture());
+        assertTrue(captor.getValue().hasDeadline());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBatchRequest() {
+        List<Response> resps = Arrays.asList(new Response("first"),
+                        new Response(new ResponseStatus(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER, "Huh?")));
+        when(app.processBatch(any(List.class))).thenReturn(resps);
+
+        WebRequest[] wrs = new WebRequest[] {new WebRequest("one"), new WebRequest("two")};
+        Entity<WebRequest[]> body = Entity.entity(wrs, MediaType.APPLICATION_JSON_TYPE);
+        javax.ws.rs.core.Response response = target("/requests").request(MediaType.APPLICATION_JSON_TYPE).post(body);
+
+        assertEquals(200, response.getStatus());
+        String expected = "[{\"type\":\"text\",\"text\":\"first\"},"
+                        + "{\"type\":\"error\",\"text\":null,\"error\":{\"code\":201,\"message\":\"Huh?\"}}]";
+        assertEquals(expected, response.readEntity(String.class));
+    }
+
+    @Test
+    public void testCircuits() {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("agent");
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.get(agent);
+        when(app.getCircuitBreakers()).thenReturn(registry);
+
+        String response = target("/circuits").request().get(String.class);
+
+        assertEquals("{\"agent\":\"CLOSED\"}", response);
+    }
+
+    @Test
+    public void testMetrics() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("requests").add(2);
+        metrics.histogram("router.route").record(10);
+        when(app.getMetrics()).thenReturn(metrics);
+
+        String response = target("/metrics").request().get(String.class);
+
+        assertTrue(response.startsWith("{\"counters\":{\"requests\":2},\"histograms\":{\"router.route\":{"));
+        assertTrue(response.contains("\"count\":1"));
+        assertTrue(response.contains("\"p99\":10"));
+        assertTrue(response.contains("\"p999\":10"));
+    }
+
+    @Test
+    public void testRequestOverloaded() {
+        Response resp = new Response(new ResponseStatus(ResponseStatus.Code.OVERLOADED));
+        when(app.process(any(Request.class))).thenReturn(resp);
+        AdmissionControl admission = new AdmissionControl(10);
+        admission.setRetryAfter(5, TimeUnit.SECONDS);
+        when(app.getAdmissionControl()).thenReturn(admission);
+
+        WebRequest wr = new WebRequest("why?");
+        Entity<WebRequest> body = Entity.entity(wr, MediaType.APPLICATION_JSON_TYPE);
+        javax.ws.rs.core.Response response = target("/request").request(MediaType.APPLICATION_JSON_TYPE).post(body);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeaderString(WebService.RETRY_AFTER_HEADER));
+        assertTrue(response.readEntity(String.class).contains("\"code\":104"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBatchRequestOverloaded() {
+        List<Response> resps = Arrays.asList(
+                        new Response(new ResponseStatus(ResponseStatus.Code.OVERLOADED)));
+        when(app.processBatch(any(List.class))).thenReturn(resps);
+
+        WebRequest[] wrs = new WebRequest[] {new WebRequest("one")};
+        Entity<WebRequest[]> body = Entity.entity(wrs, MediaType.APPLICATION_JSON_TYPE);
+        javax.ws.rs.core.Response response = target("/requests").request(MediaType.APPLICATION_JSON_TYPE).post(body);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeaderString(WebService.RETRY_AFTER_HEADER));
+    }
+
     @Test
     public void testPing() {
         javax.ws.rs.core.Response response = target("/ping").request(MediaType.APPLICATION_JSON_TYPE).get();
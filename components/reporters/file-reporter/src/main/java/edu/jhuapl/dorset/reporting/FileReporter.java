@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.supercsv.cellprocessor.FmtDate;
 import org.supercsv.cellprocessor.Optional;
+import org.supercsv.cellprocessor.ParseBool;
 import org.supercsv.cellprocessor.ParseDate;
 import org.supercsv.cellprocessor.ParseInt;
 import org.supercsv.cellprocessor.ParseLong;
@@ -58,29 +60,39 @@ public class FileReporter implements Reporter {
     private static final Logger logger = LoggerFactory.getLogger(FileReporter.class);
     private static final CsvPreference FORMAT = CsvPreference.EXCEL_PREFERENCE;
     private static final String[] FIELDS = {"timestamp", "requestId", "requestText",
-            "agentName", "responseText", "responseCode", "routeTime", "agentTime"};
+            "agentName", "responseText", "responseCode", "routeTime", "agentTime",
+            "cacheHit"};
     public static final String ISO_8601 = "yyyy-MM-dd'T'HH:mm:ssZ";
     // timestamp, request id, request text, and route time are the required fields
     private static final CellProcessor[] WRITE_PROCESSORS = new CellProcessor[] {
             new FmtDate(ISO_8601), new NotNull(), new NotNull(), new Optional(), new Optional(),
-            new Optional(), new NotNull(), new Optional()};
+            new Optional(), new NotNull(), new Optional(), new Optional()};
     private static final CellProcessor[] READ_PROCESSORS = new CellProcessor[] {
             new ParseDate(ISO_8601), new NotNull(), new NotNull(), new Optional(), new Optional(),
-            new Optional(new ParseInt()), new ParseLong(), new Optional(new ParseLong())};
+            new Optional(new ParseInt()), new ParseLong(), new Optional(new ParseLong()),
+            new Optional(new ParseBool())};
 
     private final String filename;
+    private String[] fields = FIELDS;
+    private CellProcessor[] writeProcessors = WRITE_PROCESSORS;
     private ICsvBeanWriter csvWriter = null;
     private FileWriter fw = null;
     private Object writeLock = new Object();
 
     /**
      * Create a file reporter
+     * <p>
+     * Reports appended to an existing file use the columns of its header so
+     * that files written before a column was added remain readable.
      *
      * @param filename  the filename to write to
      */
     public FileReporter(String filename) {
         this.filename = filename;
-        if (Files.exists(Paths.get(filename))) {
+        String[] header = readHeader(filename);
+        if (header != null) {
+            fields = Arrays.copyOf(FIELDS, Math.min(header.length, FIELDS.length));
+            writeProcessors = Arrays.copyOf(WRITE_PROCESSORS, fields.length);
             try {
                 fw = new FileWriter(filename, true);
                 csvWriter = new CsvBeanWriter(fw, FORMAT);
@@ -108,7 +120,7 @@ public class FileReporter implements Reporter {
 
         try {
             synchronized (writeLock) {
-                csvWriter.write(report, FIELDS, WRITE_PROCESSORS);
+                csvWriter.write(report, fields, writeProcessors);
                 csvWriter.flush();
             }
         } catch (IOException e) {
@@ -117,6 +129,26 @@ public class FileReporter implements Reporter {
         }
     }
 
+    @Override
+    public void store(Report[] reports) {
+        if (csvWriter == null) {
+            logger.warn("Unable to store reports because the csv writer is not initialized.");
+            return;
+        }
+
+        try {
+            synchronized (writeLock) {
+                for (Report report : reports) {
+                    csvWriter.write(report, fields, writeProcessors);
+                }
+                csvWriter.flush();
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to store reports because of internal csv writer error.", e);
+            return;
+        }
+    }
+
     @Override
     public Report[] retrieve(ReportQuery query) {
         ICsvBeanReader csvReader = null;
@@ -137,8 +169,10 @@ public class FileReporter implements Reporter {
                 limit = Integer.MAX_VALUE;
             }
             final String[] header = csvReader.getHeader(true);
+            // files written before the cache hit column was added have fewer columns
+            final CellProcessor[] processors = Arrays.copyOf(READ_PROCESSORS, header.length);
             while (reports.size() < limit) {
-                Report report = csvReader.read(Report.class, header, READ_PROCESSORS);
+                Report report = csvReader.read(Report.class, header, processors);
                 if (report == null) {
                     break;
                 }
@@ -163,6 +197,18 @@ public class FileReporter implements Reporter {
         return reports.toArray(new Report[reports.size()]);
     }
 
+    private static String[] readHeader(String filename) {
+        if (!Files.exists(Paths.get(filename))) {
+            return null;
+        }
+        try (ICsvBeanReader csvReader = new CsvBeanReader(new FileReader(filename), FORMAT)) {
+            return csvReader.getHeader(true);
+        } catch (IOException e) {
+            logger.warn("Unable to read the header of " + filename, e);
+            return null;
+        }
+    }
+
     class DateRangeChecker {
         private Date start;
         private Date end;
@@ -67,7 +67,7 @@ public class FileReporterTest {
         Reporter reporter = new FileReporter(file.toString());
 
         String actual = Files.readFirstLine(file, Charsets.UTF_8);
-        assertEquals(header, actual);
+        assertEquals(header + ",cacheHit", actual);
     }
 
     @Test
@@ -85,7 +85,7 @@ public class FileReporterTest {
         Reporter reporter = new FileReporter(file.toString());
         reporter.store(r);
 
-        String expected = "request-1,What is today's date?,date,yesterday,0,17,449922";
+        String expected = "request-1,What is today's date?,date,yesterday,0,17,449922,false";
         List<String> lines = Files.readLines(file, Charsets.UTF_8);
         String actual = lines.get(1);
         // skip timestamp to make check easier
@@ -115,6 +115,45 @@ public class FileReporterTest {
         assertEquals(123456789, reports[0].getAgentTime());
     }
 
+    @Test
+    public void testReadingCacheHit() throws FileNotFoundException {
+        File file = getTempFile();
+        PrintWriter out = new PrintWriter(file.toString());
+        out.println(header + ",cacheHit");
+        DateFormat df = new SimpleDateFormat(FileReporter.ISO_8601);
+        out.println(df.format(new Date()) + ",abcdef,Why?,all,because,0,87,0,true");
+        out.close();
+
+        Reporter fr = new FileReporter(file.toString());
+        Report[] reports = fr.retrieve(new ReportQuery());
+
+        assertEquals(1, reports.length);
+        assertTrue(reports[0].isCacheHit());
+    }
+
+    @Test
+    public void testAppendingToFileWithOldHeader() throws IOException {
+        File file = getTempFile();
+        PrintWriter out = new PrintWriter(file.toString());
+        out.println(header);
+        out.println("2016-02-02T15:43:34UTC,req-1,Why?,all,because,0,87,123456789");
+        out.close();
+        Report report = new Report(new Request("What is today's date?", "req-2"));
+        report.setRouteTime(30, 47);
+        report.setResponse(new Response("yesterday"));
+        report.setCacheHit(true);
+
+        Reporter fr = new FileReporter(file.toString());
+        fr.store(report);
+        Report[] reports = fr.retrieve(new ReportQuery());
+
+        assertEquals(header, Files.readFirstLine(file, Charsets.UTF_8));
+        assertEquals(2, reports.length);
+        assertEquals("req-2", reports[1].getRequestId());
+        assertEquals("yesterday", reports[1].getResponseText());
+        assertFalse(reports[1].isCacheHit());
+    }
+
     @Test
     public void testDateRangeRetrieve() throws FileNotFoundException, ParseException {
         File file = getTempFile();
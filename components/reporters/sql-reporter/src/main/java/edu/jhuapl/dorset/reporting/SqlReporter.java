@@ -53,6 +53,17 @@ public class SqlReporter implements Reporter {
         session.close();
     }
 
+    @Override
+    public void store(Report[] reports) {
+        Session session = sessionFactory.openSession();
+        session.beginTransaction();
+        for (Report report : reports) {
+            session.save(new SqlReport(report));
+        }
+        session.getTransaction().commit();
+        session.close();
+    }
+
     @Override
     public Report[] retrieve(ReportQuery query) {
         Session session = sessionFactory.openSession();
@@ -219,4 +219,19 @@ public class SqlReporterTest {
         assertEquals(df.parse("2016-02-03T15:43:34UTC"), reports[0].getTimestamp());
         assertEquals(df.parse("2016-02-04T15:43:34UTC"), reports[1].getTimestamp());
     }
+
+    @Test
+    public void testStoreBatch() {
+        Report[] batch = new Report[3];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new Report(new Request("request " + i));
+            batch[i].setResponse(new Response("response " + i));
+        }
+        Reporter reporter = new SqlReporter(sessionFactory);
+        reporter.store(batch);
+
+        Report[] reports = reporter.retrieve(new ReportQuery());
+        assertEquals(3, reports.length);
+        assertEquals("request 2", reports[2].getRequestText());
+    }
 }
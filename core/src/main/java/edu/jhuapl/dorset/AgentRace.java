@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import edu.jhuapl.dorset.ResponseStatus.Code;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.agents.AgentResponse;
+import edu.jhuapl.dorset.reporting.Report;
+
+/**
+ * Races the routed agents against each other
+ * <p>
+ * Agents are started in routing order, either all at once or staggered by a
+ * hedge delay. An agent that finishes without a successful response causes
+ * the next agent to start immediately. The first successful response wins
+ * and the agents still running are cancelled. If no agent succeeds, the
+ * first non-null response in routing order is used, which matches the
+ * sequential dispatch of the application.
+ */
+class AgentRace {
+    private final Agent[] agents;
+    private final Function<Agent, CompletableFuture<AgentResponse>> invoker;
+    private final Report report;
+    private final ScheduledExecutorService scheduler;
+    private final long hedgeDelay;
+
+    private final CompletableFuture<Response> result = new CompletableFuture<Response>();
+    private final CompletableFuture<AgentResponse>[] futures;
+    private final AgentResponse[] responses;
+    private Throwable failure;
+    private int numStarted = 0;
+    private int numCompleted = 0;
+
+    /**
+     * Create a race between agents
+     *
+     * @param agents  the routed agents in priority order
+     * @param invoker  sends the request to an agent
+     * @param report  the report that records the winning agent
+     * @param scheduler  scheduler for starting hedged agents
+     * @param hedgeDelay  nanoseconds between starting agents (0 starts all at once)
+     */
+    @SuppressWarnings("unchecked")
+    AgentRace(Agent[] agents, Function<Agent, CompletableFuture<AgentResponse>> invoker,
+                    Report report, ScheduledExecutorService scheduler, long hedgeDelay) {
+        this.agents = agents;
+        this.invoker = invoker;
+        this.report = report;
+        this.scheduler = scheduler;
+        this.hedgeDelay = hedgeDelay;
+        this.futures = new CompletableFuture[agents.length];
+        this.responses = new AgentResponse[agents.length];
+    }
+
+    /**
+     * Start the race
+     *
+     * @return future that completes with the response of the winning agent
+     */
+    CompletableFuture<Response> run() {
+        result.whenComplete((response, error) -> cancelAll());
+        if (hedgeDelay <= 0) {
+            for (int i = 0; i < agents.length; i++) {
+                startNext();
+            }
+        } else {
+            startNext();
+        }
+        return result;
+    }
+
+    private void startNext() {
+        final int index;
+        synchronized (this) {
+            if (result.isDone() || numStarted == agents.length) {
+                return;
+            }
+            index = numStarted++;
+        }
+
+        CompletableFuture<AgentResponse> future;
+        try {
+            future = invoker.apply(agents[index]);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<AgentResponse>();
+            future.completeExceptionally(e);
+        }
+        synchronized (this) {
+            futures[index] = future;
+        }
+        future.whenComplete((response, error) -> finish(index, response, error));
+
+        if (hedgeDelay > 0 && index + 1 < agents.length) {
+            scheduler.schedule(() -> startIfNotStarted(index + 1), hedgeDelay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Start the next agent if the agent at index has not already been started
+     */
+    private void startIfNotStarted(int index) {
+        synchronized (this) {
+            if (numStarted > index) {
+                return;
+            }
+        }
+        startNext();
+    }
+
+    private void finish(int index, AgentResponse response, Throwable error) {
+        boolean startAnother = false;
+        synchronized (this) {
+            numCompleted++;
+            if (result.isDone()) {
+                return;
+            }
+            if (error == null) {
+                responses[index] = response;
+            } else {
+                failure = error;
+            }
+            if (response != null && response.isSuccess()) {
+                report.setAgent(agents[index]);
+                result.complete(new Response(response));
+                return;
+            }
+            if (numCompleted == agents.length) {
+                completeWithFallback();
+                return;
+            }
+            startAnother = numStarted == numCompleted;
+        }
+        if (startAnother) {
+            // nothing is running so do not wait for the hedge delay
+            startNext();
+        }
+    }
+
+    private void completeWithFallback() {
+        for (int i = 0; i < agents.length; i++) {
+            if (responses[i] != null) {
+                report.setAgent(agents[i]);
+                result.complete(new Response(responses[i]));
+                return;
+            }
+        }
+        report.setAgent(agents[agents.length - 1]);
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(new Response(new ResponseStatus(Code.NO_RESPONSE_FROM_AGENT)));
+        }
+    }
+
+    private void cancelAll() {
+        CompletableFuture<AgentResponse>[] running;
+        synchronized (this) {
+            running = futures.clone();
+        }
+        for (CompletableFuture<AgentResponse> future : running) {
+            if (future != null && !future.isDone()) {
+                future.cancel(true);
+            }
+        }
+    }
+}
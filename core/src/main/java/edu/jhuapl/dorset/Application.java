@@ -17,7 +17,23 @@
 package edu.jhuapl.dorset;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,12 +42,23 @@ import edu.jhuapl.dorset.ResponseStatus.Code;
 import edu.jhuapl.dorset.agents.Agent;
 import edu.jhuapl.dorset.agents.AgentRequest;
 import edu.jhuapl.dorset.agents.AgentResponse;
+import edu.jhuapl.dorset.agents.AsyncAgentAdapter;
+import edu.jhuapl.dorset.agents.CacheableAgent;
+import edu.jhuapl.dorset.caching.ResponseCache;
+import edu.jhuapl.dorset.caching.ResponseCache.CachedResponse;
 import edu.jhuapl.dorset.filters.RequestFilter;
 import edu.jhuapl.dorset.filters.ResponseFilter;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
 import edu.jhuapl.dorset.reporting.NullReporter;
 import edu.jhuapl.dorset.reporting.Report;
 import edu.jhuapl.dorset.reporting.Reporter;
+import edu.jhuapl.dorset.resilience.AdmissionControl;
+import edu.jhuapl.dorset.resilience.Bulkhead;
+import edu.jhuapl.dorset.resilience.BulkheadRegistry;
+import edu.jhuapl.dorset.resilience.CircuitBreaker;
+import edu.jhuapl.dorset.resilience.CircuitBreakerRegistry;
 import edu.jhuapl.dorset.routing.Router;
+import edu.jhuapl.dorset.routing.ScoredAgent;
 import edu.jhuapl.dorset.users.User;
 
 /**
@@ -56,17 +83,94 @@ import edu.jhuapl.dorset.users.User;
  *     yourMethodToSendResponse(response);
  * }
  * </pre>
+ *
+ * Applications with filters or a reporter can be created with a
+ * {@link Builder}. The filters, router, reporter, and agents form an
+ * immutable {@link Pipeline} that is shared by the threads processing
+ * requests. Changing the configuration replaces the whole pipeline:
+ *
+ * <pre>
+ * Application app = new Application.Builder(router)
+ *         .setReporter(reporter)
+ *         .addRequestFilter(new WakeupRequestFilter("Dorset"))
+ *         .build();
+ *
+ * app.setPipeline(new Application.Builder(app.getPipeline())
+ *         .setRouter(newRouter)
+ *         .buildPipeline());
+ * </pre>
+ *
+ * Requests can also be processed asynchronously with
+ * {@link #processAsync(Request)}. The work runs on the application's executor
+ * which can be set with {@link #setExecutor(Executor)}.
+ *
+ * When a router returns several agents, they are tried one at a time by
+ * default. The {@link DispatchMode} can be changed so that the agents run
+ * concurrently and the first successful response is used.
+ *
+ * Time limits can be set for whole requests and for each agent call. An
+ * agent that does not respond in time is treated as not responding and
+ * the remaining time budget is passed to the agent in the
+ * {@link AgentRequest}.
+ *
+ * A {@link ResponseCache} can be set to answer repeated requests without
+ * routing them. Only agents that implement {@link CacheableAgent} are
+ * cached, for as long as they declare. Other agents, such as agents with
+ * side effects or remote agents, are called for every request.
+ *
+ * With a {@link CircuitBreakerRegistry}, agents that keep failing are skipped
+ * until their circuit breaker allows a trial call. A {@link BulkheadRegistry}
+ * limits the concurrent calls to expensive agents so that they cannot use up
+ * the threads needed by the other agents. {@link AdmissionControl} limits
+ * the requests being processed and rejects the rest right away with
+ * {@link ResponseStatus.Code#OVERLOADED}.
+ *
+ * The latency of each stage of request handling is recorded in the
+ * application's {@link MetricsRegistry}.
  */
 public class Application {
     private final Logger logger = LoggerFactory.getLogger(Application.class);
 
-    protected Agent[] agents;
-    protected Router router;
-    protected Reporter reporter;
-    protected User user;
-    protected List<RequestFilter> requestFilters;
-    protected List<ResponseFilter> responseFilters;
-    protected List<ShutdownListener> shutdownListeners;
+    /** Default delay before starting the next agent in hedged mode ({@value} ms) */
+    public static final long DEFAULT_HEDGE_DELAY = 100;
+
+    /** Counter of processed requests */
+    public static final String REQUESTS_METRIC = "requests";
+    /** Counter of requests that did not get a successful response */
+    public static final String ERRORS_METRIC = "errors";
+    /** Counter of requests rejected by admission control */
+    public static final String SHED_METRIC = "shed";
+    /** Counter of agent calls not attempted because no time remained */
+    public static final String NOT_ATTEMPTED_METRIC = "notAttempted";
+    /** Histogram of the total time to process a request */
+    public static final String REQUEST_METRIC = "request";
+    /** Prefix of the histograms for each request and response filter class */
+    public static final String FILTER_METRIC_PREFIX = "filter.";
+    /** Histogram of the routing time */
+    public static final String ROUTER_METRIC = "router.route";
+    /** Prefix of the histograms for each agent name */
+    public static final String AGENT_METRIC_PREFIX = "agent.";
+    /** Histogram of the time to store reports */
+    public static final String REPORTER_METRIC = "reporter.store";
+
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+    protected volatile Pipeline pipeline;
+    protected volatile User user;
+    protected final List<ShutdownListener> shutdownListeners;
+    protected Executor executor;
+    protected DispatchMode dispatchMode = DispatchMode.SEQUENTIAL;
+    protected long hedgeDelay = TimeUnit.MILLISECONDS.toNanos(DEFAULT_HEDGE_DELAY);
+    protected long requestTimeout = NO_TIMEOUT;
+    protected long agentTimeout = NO_TIMEOUT;
+    protected ResponseCache responseCache;
+    protected CircuitBreakerRegistry circuitBreakers;
+    protected BulkheadRegistry bulkheads;
+    protected MetricsRegistry metrics = new MetricsRegistry();
+    protected volatile AdmissionControl admissionControl;
+    protected double minRoutingScore;
+    private ExecutorService defaultExecutor;
+    private ScheduledExecutorService scheduler;
 
     /**
      * Create a Dorset application
@@ -76,7 +180,7 @@ public class Application {
      * @param router  a router that finds the appropriate agent for a request
      */
     public Application(Router router) {
-        this(router, new NullReporter());
+        this(new Builder(router));
     }
 
     /**
@@ -86,12 +190,20 @@ public class Application {
      * @param reporter  a reporter which logs request handling
      */
     public Application(Router router, Reporter reporter) {
-        this.router = router;
-        this.reporter = reporter;
-        this.agents = router.getAgents();
-        this.requestFilters = new ArrayList<RequestFilter>();
-        this.responseFilters = new ArrayList<ResponseFilter>();
-        this.shutdownListeners = new ArrayList<ShutdownListener>();
+        this(new Builder(router).setReporter(reporter));
+    }
+
+    /**
+     * Create a Dorset application from a builder
+     *
+     * @param builder  the application builder
+     * @see Builder#build()
+     */
+    protected Application(Builder builder) {
+        this.pipeline = builder.buildPipeline();
+        this.user = builder.user;
+        this.shutdownListeners = new CopyOnWriteArrayList<ShutdownListener>(
+                        builder.shutdownListeners);
     }
 
     /**
@@ -100,25 +212,76 @@ public class Application {
      * @return array of Agent objects
      */
     public Agent[] getAgents() {
-        return agents;
+        return pipeline.getAgents();
+    }
+
+    /**
+     * Get the request pipeline
+     *
+     * @return the current pipeline
+     */
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Replace the request pipeline
+     * <p>
+     * Requests that are already being processed finish with the old
+     * pipeline. Use {@link Builder#Builder(Pipeline)} to create a modified
+     * copy of the current pipeline. The response cache is cleared since its
+     * responses were routed and filtered by the old pipeline.
+     *
+     * @param pipeline  the new pipeline
+     */
+    public synchronized void setPipeline(Pipeline pipeline) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Pipeline cannot be null");
+        }
+        this.pipeline = pipeline;
+        ResponseCache cache = responseCache;
+        if (cache != null) {
+            cache.clear();
+        }
     }
 
     /**
      * Add a request filter
+     * <p>
+     * This replaces the pipeline with a copy that includes the filter.
      *
      * @param filter  a RequestFilter
      */
-    public void addRequestFilter(RequestFilter filter) {
-        requestFilters.add(filter);
+    public synchronized void addRequestFilter(RequestFilter filter) {
+        setPipeline(new Builder(pipeline).addRequestFilter(filter).buildPipeline());
     }
 
     /**
      * Add a response filter
+     * <p>
+     * This replaces the pipeline with a copy that includes the filter.
      *
      * @param filter  a ResponseFilter
      */
-    public void addResponseFilter(ResponseFilter filter) {
-        responseFilters.add(filter);
+    public synchronized void addResponseFilter(ResponseFilter filter) {
+        setPipeline(new Builder(pipeline).addResponseFilter(filter).buildPipeline());
+    }
+
+    /**
+     * Replace the router
+     * <p>
+     * This replaces the pipeline with a copy that uses the router so the
+     * agents returned by {@link #getAgents()} change with the router.
+     * Requests that are already being processed finish with the old router.
+     * A {@link edu.jhuapl.dorset.routing.RouterReloader} can call this
+     * whenever the routing configuration changes. The response cache is
+     * cleared since its answers came from the old routing, and answers from
+     * requests still using the old router are not cached.
+     *
+     * @param router  the new router
+     */
+    public synchronized void setRouter(Router router) {
+        setPipeline(new Builder(pipeline).setRouter(router).buildPipeline());
     }
 
     /**
@@ -139,6 +302,174 @@ public class Application {
         this.user = user;
     }
 
+    /**
+     * Set the executor used for asynchronous processing
+     * <p>
+     * If not set, the application creates a thread pool that is shut down
+     * when {@link #shutdown()} is called. An executor passed in is not shut
+     * down by the application.
+     *
+     * @param executor  the executor for running request processing and agents
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set how the routed agents are called
+     *
+     * @param mode  the dispatch mode (sequential by default)
+     */
+    public void setDispatchMode(DispatchMode mode) {
+        this.dispatchMode = mode;
+    }
+
+    /**
+     * Set the delay before the next agent is started in hedged mode
+     * <p>
+     * The next agent is also started as soon as the running agents have
+     * finished without a successful response.
+     *
+     * @param delay  the delay
+     * @param unit  the time unit of the delay
+     */
+    public void setHedgeDelay(long delay, TimeUnit unit) {
+        this.hedgeDelay = unit.toNanos(delay);
+    }
+
+    /**
+     * Set the default time budget of a request
+     * <p>
+     * This is used for requests that do not already have a deadline.
+     *
+     * @param timeout  the time budget for handling a request
+     * @param unit  the time unit of the timeout
+     */
+    public void setRequestTimeout(long timeout, TimeUnit unit) {
+        this.requestTimeout = unit.toNanos(timeout);
+    }
+
+    /**
+     * Set the maximum time that a single agent call can take
+     * <p>
+     * An agent that takes longer is cancelled and treated as if it did not
+     * provide a response. The agent's time is also limited by the deadline
+     * of the request.
+     *
+     * @param timeout  the time limit for an agent
+     * @param unit  the time unit of the timeout
+     */
+    public void setAgentTimeout(long timeout, TimeUnit unit) {
+        this.agentTimeout = unit.toNanos(timeout);
+    }
+
+    /**
+     * Set the cache for successful responses
+     * <p>
+     * Only responses from agents that implement {@link CacheableAgent} with
+     * a positive time to live are cached. Responses are cached by the
+     * filtered request text and the user. The
+     * response filters run before a response is cached, so a cache hit
+     * returns the filtered response without running them again.
+     *
+     * @param cache  the response cache or null to disable caching
+     */
+    public void setResponseCache(ResponseCache cache) {
+        this.responseCache = cache;
+    }
+
+    /**
+     * Set the circuit breakers for the agents
+     * <p>
+     * An agent with an open circuit is skipped as if it did not respond.
+     *
+     * @param registry  the circuit breaker registry or null to disable
+     */
+    public void setCircuitBreakers(CircuitBreakerRegistry registry) {
+        this.circuitBreakers = registry;
+    }
+
+    /**
+     * Get the circuit breakers for the agents
+     *
+     * @return the circuit breaker registry or null if not enabled
+     */
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Set the bulkheads that limit concurrent calls to agents
+     * <p>
+     * A call to an agent whose bulkhead is full is rejected immediately and
+     * treated as if the agent did not respond. The dedicated threads of the
+     * bulkheads are stopped when {@link #shutdown()} is called.
+     *
+     * @param registry  the bulkhead registry or null to disable
+     */
+    public void setBulkheads(BulkheadRegistry registry) {
+        this.bulkheads = registry;
+    }
+
+    /**
+     * Set the registry for recording metrics
+     * <p>
+     * Pass the same registry to an
+     * {@link edu.jhuapl.dorset.http.InstrumentedHttpClient} to include the
+     * time of http requests made by agents.
+     *
+     * @param metrics  the metrics registry
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the registry of metrics
+     *
+     * @return the metrics registry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the admission control for requests
+     * <p>
+     * Requests over the limit get a response with the code
+     * {@link ResponseStatus.Code#OVERLOADED} without being processed. They
+     * are still reported.
+     *
+     * @param control  the admission control or null to admit all requests
+     */
+    public void setAdmissionControl(AdmissionControl control) {
+        this.admissionControl = control;
+    }
+
+    /**
+     * Get the admission control for requests
+     *
+     * @return the admission control or null if all requests are admitted
+     */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * Set the minimum routing score of an agent
+     * <p>
+     * When set, requests are ranked with {@link Router#rank(Request)} and
+     * agents scoring below the minimum are not called.
+     *
+     * @param score  the minimum score between 0 and 1 (0 to call all agents)
+     */
+    public void setMinRoutingScore(double score) {
+        if (score < 0 || score > 1) {
+            throw new IllegalArgumentException("Score must be between 0 and 1: " + score);
+        }
+        this.minRoutingScore = score;
+    }
+
     /**
      * Process a request
      *
@@ -146,29 +477,154 @@ public class Application {
      * @return Response object
      */
     public Response process(Request request) {
-        logger.info("Processing request: " + request.getText());
-        for (RequestFilter rf : requestFilters) {
-            request = rf.filter(request);
+        final long startTime = System.nanoTime();
+        final Pipeline pipeline = this.pipeline;
+        final AdmissionControl admission = this.admissionControl;
+        if (admission != null && !admission.tryAcquire()) {
+            return shed(pipeline, request);
         }
-        Response response = new Response(new ResponseStatus(
-                Code.NO_AVAILABLE_AGENT));
+
+        Response response = null;
+        try {
+            response = processRequest(pipeline, request);
+        } finally {
+            long latency = System.nanoTime() - startTime;
+            metrics.histogram(REQUEST_METRIC).record(latency);
+            if (admission != null) {
+                admission.release(latency, isAnswered(response));
+            }
+        }
+        return response;
+    }
+
+    private Response processRequest(Pipeline pipeline, Request request) {
+        logger.info("Processing request: " + request.getText());
+        setDeadline(request);
+        request = filterRequest(pipeline, request);
         Report report = new Report(request);
+        Response response = getCachedResponse(request, report);
+        if (response == null) {
+            Agent[] agents = route(pipeline, request, report);
+            response = filterResponse(pipeline, dispatch(request, agents, report));
+            cacheResponse(pipeline, request, response, report);
+        }
+
+        return reportResponse(pipeline, response, report);
+    }
 
+    /**
+     * Process a batch of requests
+     * <p>
+     * The requests are filtered and routed, then grouped by the first agent
+     * that they were routed to. The groups run in parallel on the
+     * application's executor with the requests of a group handled in order.
+     * The reports of the whole batch are stored with a single call to the
+     * reporter.
+     *
+     * @param requests  list of Request objects
+     * @return list of Response objects in the same order as the requests
+     */
+    public List<Response> processBatch(List<Request> requests) {
+        final Pipeline pipeline = this.pipeline;
+        final AdmissionControl admission = this.admissionControl;
+        final int size = requests.size();
+        final boolean[] admitted = new boolean[size];
+        final Request[] filteredRequests = new Request[size];
+        final Agent[][] routedAgents = new Agent[size][];
+        final Report[] reports = new Report[size];
+        final Response[] responses = new Response[size];
+        // per request processing time reported to admission control
+        final long[] startTimes = new long[size];
+        final long[] endTimes = new long[size];
+
+        Map<Agent, List<Integer>> groups = new LinkedHashMap<Agent, List<Integer>>();
+        for (int i = 0; i < size; i++) {
+            Request request = requests.get(i);
+            if (admission != null && !admission.tryAcquire()) {
+                reports[i] = new Report(request);
+                responses[i] = filterResponse(pipeline,
+                                new Response(new ResponseStatus(Code.OVERLOADED)));
+                metrics.counter(SHED_METRIC).increment();
+                continue;
+            }
+            admitted[i] = true;
+            startTimes[i] = System.nanoTime();
+            logger.info("Processing request: " + request.getText());
+            setDeadline(request);
+            filteredRequests[i] = filterRequest(pipeline, request);
+            reports[i] = new Report(filteredRequests[i]);
+            responses[i] = getCachedResponse(filteredRequests[i], reports[i]);
+            if (responses[i] != null) {
+                endTimes[i] = System.nanoTime();
+                continue;
+            }
+            routedAgents[i] = route(pipeline, filteredRequests[i], reports[i]);
+            if (routedAgents[i].length == 0) {
+                responses[i] = filterResponse(pipeline,
+                                new Response(new ResponseStatus(Code.NO_AVAILABLE_AGENT)));
+                endTimes[i] = System.nanoTime();
+            } else {
+                Agent agent = routedAgents[i][0];
+                if (!groups.containsKey(agent)) {
+                    groups.put(agent, new ArrayList<Integer>());
+                }
+                groups.get(agent).add(i);
+            }
+        }
+
+        Executor executor = getExecutor();
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[groups.size()];
+        int taskIndex = 0;
+        for (final List<Integer> group : groups.values()) {
+            tasks[taskIndex++] = CompletableFuture.runAsync(() -> {
+                for (int i : group) {
+                    responses[i] = filterResponse(pipeline,
+                                    dispatch(filteredRequests[i], routedAgents[i], reports[i]));
+                    endTimes[i] = System.nanoTime();
+                    cacheResponse(pipeline, filteredRequests[i], responses[i], reports[i]);
+                }
+            }, executor);
+        }
+        waitFor(CompletableFuture.allOf(tasks), null);
+
+        for (int i = 0; i < size; i++) {
+            if (responses[i] == null) {
+                // interrupted before the agents finished
+                responses[i] = filterResponse(pipeline,
+                                new Response(new ResponseStatus(Code.NO_RESPONSE_FROM_AGENT)));
+                endTimes[i] = System.nanoTime();
+            }
+            reports[i].setResponse(responses[i]);
+            countResponse(responses[i]);
+            if (admitted[i] && admission != null) {
+                admission.release(endTimes[i] - startTimes[i], isAnswered(responses[i]));
+            }
+        }
         long startTime = System.nanoTime();
-        Agent[] agents = router.route(request);
-        report.setRouteTime(startTime, System.nanoTime());
-        if (agents.length > 0) {
+        pipeline.getReporter().store(reports);
+        metrics.histogram(REPORTER_METRIC).recordSince(startTime);
+
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Send a routed request to its agents and wait for the response
+     */
+    protected Response dispatch(Request request, Agent[] agents, Report report) {
+        Response response = new Response(new ResponseStatus(
+                Code.NO_AVAILABLE_AGENT));
+        if (agents.length > 0 && dispatchMode != DispatchMode.SEQUENTIAL) {
+            long startTime = System.nanoTime();
+            response = waitFor(race(request, agents, report, getExecutor()),
+                            new Response(new ResponseStatus(Code.NO_RESPONSE_FROM_AGENT)));
+            report.setAgentTime(startTime, System.nanoTime());
+        } else if (agents.length > 0) {
             response = new Response(new ResponseStatus(
                     Code.NO_RESPONSE_FROM_AGENT));
-            startTime = System.nanoTime();
+            long startTime = System.nanoTime();
             for (Agent agent : agents) {
                 report.setAgent(agent);
-                AgentResponse agentResponse = null;
-                if (this.user != null) {
-                    agentResponse = agent.process(new AgentRequest(new Request(request.getText(), this.user, request.getId())));
-                } else {
-                    agentResponse = agent.process(new AgentRequest(request));
-                }
+                AgentResponse agentResponse = callAgent(agent, request);
                 if (agentResponse != null) {
                     // take first answer
                     response = new Response(agentResponse);
@@ -177,12 +633,68 @@ public class Application {
             }
             report.setAgentTime(startTime, System.nanoTime());
         }
-        report.setResponse(response);
-        reporter.store(report);
-
         return response;
     }
 
+    /**
+     * Process a request asynchronously
+     * <p>
+     * Filtering, routing, and reporting run on the application's executor.
+     * Agents that implement {@link edu.jhuapl.dorset.agents.AsyncAgent} are
+     * called directly and synchronous agents are run on the executor. The
+     * calling thread is never blocked.
+     *
+     * @param request  Request object
+     * @return future that completes with the Response object
+     */
+    public CompletableFuture<Response> processAsync(final Request request) {
+        final Executor executor = getExecutor();
+        final long requestStartTime = System.nanoTime();
+        final Pipeline pipeline = this.pipeline;
+        final AdmissionControl admission = this.admissionControl;
+        if (admission != null && !admission.tryAcquire()) {
+            return CompletableFuture.completedFuture(shed(pipeline, request));
+        }
+        CompletableFuture<Response> future = CompletableFuture.supplyAsync(() -> {
+            logger.info("Processing request: " + request.getText());
+            setDeadline(request);
+            return filterRequest(pipeline, request);
+        }, executor).thenCompose(filteredRequest -> {
+            final Report report = new Report(filteredRequest);
+            Response cachedResponse = getCachedResponse(filteredRequest, report);
+            if (cachedResponse != null) {
+                return CompletableFuture.completedFuture(
+                                reportResponse(pipeline, cachedResponse, report));
+            }
+            Agent[] agents = route(pipeline, filteredRequest, report);
+            if (agents.length == 0) {
+                Response response = new Response(new ResponseStatus(Code.NO_AVAILABLE_AGENT));
+                return CompletableFuture.completedFuture(completeRequest(pipeline, response, report));
+            }
+            final long startTime = System.nanoTime();
+            CompletableFuture<Response> dispatch;
+            if (dispatchMode == DispatchMode.SEQUENTIAL) {
+                dispatch = dispatchAsync(filteredRequest, agents, 0, report, executor);
+            } else {
+                dispatch = race(filteredRequest, agents, report, executor);
+            }
+            return dispatch.thenApplyAsync(response -> {
+                report.setAgentTime(startTime, System.nanoTime());
+                Response filteredResponse = filterResponse(pipeline, response);
+                cacheResponse(pipeline, filteredRequest, filteredResponse, report);
+                return reportResponse(pipeline, filteredResponse, report);
+            }, executor);
+        });
+        future.whenComplete((response, error) -> {
+            long latency = System.nanoTime() - requestStartTime;
+            metrics.histogram(REQUEST_METRIC).record(latency);
+            if (admission != null) {
+                admission.release(latency, isAnswered(response));
+            }
+        });
+        return future;
+    }
+
     /**
      * Call this when the application is done running
      */
@@ -190,6 +702,600 @@ public class Application {
         for (ShutdownListener listener : shutdownListeners) {
             listener.shutdown();
         }
+        if (bulkheads != null) {
+            bulkheads.shutdown();
+        }
+        synchronized (this) {
+            if (defaultExecutor != null) {
+                defaultExecutor.shutdown();
+                defaultExecutor = null;
+            }
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+
+    protected void setDeadline(Request request) {
+        if (!request.hasDeadline() && requestTimeout != NO_TIMEOUT) {
+            request.setTimeout(requestTimeout, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    protected Request filterRequest(Pipeline pipeline, Request request) {
+        return pipeline.filterRequest(request, metrics);
+    }
+
+    protected Response filterResponse(Pipeline pipeline, Response response) {
+        return pipeline.filterResponse(response, metrics);
+    }
+
+    protected Agent[] route(Pipeline pipeline, Request request, Report report) {
+        long startTime = System.nanoTime();
+        Agent[] agents;
+        if (minRoutingScore > 0) {
+            agents = selectAgents(pipeline.getRouter().rank(request));
+        } else {
+            agents = pipeline.getRouter().route(request);
+        }
+        long stopTime = System.nanoTime();
+        report.setRouteTime(startTime, stopTime);
+        metrics.histogram(ROUTER_METRIC).record(stopTime - startTime);
+        return agents;
+    }
+
+    private Agent[] selectAgents(ScoredAgent[] ranked) {
+        int count = 0;
+        while (count < ranked.length && ranked[count].getScore() >= minRoutingScore) {
+            count++;
+        }
+        return ScoredAgent.toAgents(Arrays.copyOf(ranked, count));
+    }
+
+    protected AgentRequest createAgentRequest(Request request) {
+        AgentRequest agentRequest = new AgentRequest(request);
+        if (this.user != null) {
+            agentRequest.setUser(this.user);
+        }
+        if (agentTimeout != NO_TIMEOUT) {
+            long deadline = System.nanoTime() + agentTimeout;
+            if (!agentRequest.hasDeadline() || deadline - agentRequest.getDeadline() < 0) {
+                agentRequest.setDeadline(deadline);
+            }
+        }
+        return agentRequest;
+    }
+
+    /**
+     * Get the key for caching the response to a request
+     * <p>
+     * Responses are cached per user. A request for a user without an id
+     * is not cached.
+     *
+     * @param request  the request
+     * @return the cache key or null if the response should not be cached
+     */
+    protected String getCacheKey(Request request) {
+        User requestUser = this.user != null ? this.user : request.getUser();
+        if (requestUser == null) {
+            return request.getText();
+        }
+        if (requestUser.getId() == null) {
+            return null;
+        }
+        return requestUser.getId() + "\u0000" + request.getText();
+    }
+
+    protected Response getCachedResponse(Request request, Report report) {
+        if (responseCache == null) {
+            return null;
+        }
+        String key = getCacheKey(request);
+        if (key == null) {
+            return null;
+        }
+        CachedResponse entry = responseCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        report.setCacheHit(true);
+        report.setAgentName(entry.getAgentName());
+        return entry.getResponse();
+    }
+
+    protected void cacheResponse(Pipeline pipeline, Request request, Response response,
+                    Report report) {
+        ResponseCache cache = responseCache;
+        if (cache == null || !response.isSuccess()) {
+            return;
+        }
+        String key = getCacheKey(request);
+        if (key == null) {
+            return;
+        }
+        Agent agent = pipeline.getAgent(report.getAgentName());
+        if (!(agent instanceof CacheableAgent)) {
+            return;
+        }
+        long ttl = ((CacheableAgent) agent).getCacheTimeToLive(createAgentRequest(request));
+        if (ttl <= CacheableAgent.NO_CACHE) {
+            return;
+        }
+        synchronized (cache) {
+            // setPipeline clears the cache after replacing the pipeline
+            if (pipeline != this.pipeline) {
+                return;
+            }
+            cache.put(key, response, agent.getName(), ttl, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    protected Response completeRequest(Pipeline pipeline, Response response, Report report) {
+        return reportResponse(pipeline, filterResponse(pipeline, response), report);
+    }
+
+    /**
+     * Report a response that has already been filtered
+     */
+    protected Response reportResponse(Pipeline pipeline, Response response, Report report) {
+        report.setResponse(response);
+        countResponse(response);
+        long startTime = System.nanoTime();
+        pipeline.getReporter().store(report);
+        metrics.histogram(REPORTER_METRIC).recordSince(startTime);
+        return response;
+    }
+
+    /**
+     * Try the agents in order until one returns a response
+     */
+    private CompletableFuture<Response> dispatchAsync(final Request request, final Agent[] agents,
+                    final int index, final Report report, final Executor executor) {
+        if (index == agents.length) {
+            return CompletableFuture.completedFuture(
+                            new Response(new ResponseStatus(Code.NO_RESPONSE_FROM_AGENT)));
+        }
+        report.setAgent(agents[index]);
+        return invokeAgent(agents[index], request, executor)
+                        .thenCompose(agentResponse -> {
+                            if (agentResponse != null) {
+                                // take first answer
+                                return CompletableFuture.completedFuture(new Response(agentResponse));
+                            }
+                            return dispatchAsync(request, agents, index + 1, report, executor);
+                        });
+    }
+
+    /**
+     * Start all the agents and take the first successful response
+     */
+    private CompletableFuture<Response> race(Request request, Agent[] agents, Report report,
+                    Executor executor) {
+        long delay = dispatchMode == DispatchMode.HEDGED ? hedgeDelay : 0;
+        return new AgentRace(agents, agent -> invokeAgent(agent, request, executor), report,
+                        getScheduler(), delay).run();
+    }
+
+    /**
+     * Call an agent on the current thread unless there is a time limit
+     */
+    private AgentResponse callAgent(Agent agent, Request request) {
+        Bulkhead bulkhead = getBulkhead(agent);
+        if (agentTimeout != NO_TIMEOUT || request.hasDeadline()
+                        || (bulkhead != null && bulkhead.getExecutor() != null)) {
+            return waitFor(invokeAgent(agent, request, getExecutor()), null);
+        }
+        if (bulkhead == null) {
+            return callAgentWithBreaker(agent, request);
+        }
+
+        if (!bulkhead.tryAcquire()) {
+            logger.warn("Rejecting call to saturated agent " + agent.getName());
+            return null;
+        }
+        try {
+            return callAgentWithBreaker(agent, request);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private AgentResponse callAgentWithBreaker(Agent agent, Request request) {
+        if (circuitBreakers == null) {
+            return processAgent(agent, createAgentRequest(request));
+        }
+
+        CircuitBreaker breaker = circuitBreakers.get(agent);
+        if (!breaker.allowRequest()) {
+            logger.info("Skipping agent " + agent.getName() + " with open circuit");
+            return null;
+        }
+        long startTime = System.nanoTime();
+        AgentResponse response;
+        try {
+            response = processAgent(agent, createAgentRequest(request));
+        } catch (RuntimeException e) {
+            breaker.recordFailure();
+            throw e;
+        }
+        circuitBreakers.record(breaker, response, System.nanoTime() - startTime);
+        return response;
+    }
+
+    /**
+     * Call an agent asynchronously within its bulkhead
+     * <p>
+     * The future completes with null if the agent is saturated, its circuit
+     * is open, or it ran out of time. The permit of a synchronous agent is
+     * released when the agent returns, not when the future completes.
+     */
+    private CompletableFuture<AgentResponse> invokeAgent(final Agent agent, Request request,
+                    Executor executor) {
+        final Bulkhead bulkhead = getBulkhead(agent);
+        if (bulkhead == null) {
+            return invokeAgentWithBreaker(agent, request, executor);
+        }
+
+        if (!bulkhead.tryAcquire()) {
+            logger.warn("Rejecting call to saturated agent " + agent.getName());
+            return CompletableFuture.completedFuture(null);
+        }
+        final Executor agentExecutor =
+                        bulkhead.getExecutor() != null ? bulkhead.getExecutor() : executor;
+        // a synchronous agent keeps its permit until its thread is done,
+        // even if the call timed out or was cancelled
+        final AtomicBoolean submitted = new AtomicBoolean();
+        Executor releasingExecutor = task -> {
+            submitted.set(true);
+            try {
+                agentExecutor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        bulkhead.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        };
+        CompletableFuture<AgentResponse> future;
+        try {
+            future = invokeAgentWithBreaker(agent, request, releasingExecutor);
+        } catch (RuntimeException e) {
+            if (!submitted.get()) {
+                bulkhead.release();
+            }
+            throw e;
+        }
+        if (!submitted.get()) {
+            // not started or an asynchronous agent that manages its own threads
+            future.whenComplete((response, error) -> bulkhead.release());
+        }
+        return future;
+    }
+
+    /**
+     * Call an agent asynchronously and update its circuit breaker
+     * <p>
+     * An agent that is not called because no time remains is counted as
+     * not attempted rather than recorded against its circuit breaker.
+     */
+    private CompletableFuture<AgentResponse> invokeAgentWithBreaker(final Agent agent,
+                    Request request, Executor executor) {
+        AgentRequest agentRequest = createAgentRequest(request);
+        long remaining = NO_TIMEOUT;
+        if (agentRequest.hasDeadline()) {
+            remaining = agentRequest.getRemainingTime(TimeUnit.NANOSECONDS);
+            if (remaining <= 0) {
+                logger.warn("No time remaining to call agent " + agent.getName());
+                metrics.counter(NOT_ATTEMPTED_METRIC).increment();
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        if (circuitBreakers == null) {
+            return invokeAgentWithTimeout(agent, agentRequest, remaining, executor);
+        }
+
+        final CircuitBreaker breaker = circuitBreakers.get(agent);
+        if (!breaker.allowRequest()) {
+            logger.info("Skipping agent " + agent.getName() + " with open circuit");
+            return CompletableFuture.completedFuture(null);
+        }
+        final long startTime = System.nanoTime();
+        final CompletableFuture<AgentResponse> future =
+                        invokeAgentWithTimeout(agent, agentRequest, remaining, executor);
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                breaker.recordIgnored();
+            } else if (error != null) {
+                breaker.recordFailure();
+            } else {
+                circuitBreakers.record(breaker, response, System.nanoTime() - startTime);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Call an agent asynchronously and enforce the time limits
+     * <p>
+     * The future completes with null if the agent ran out of time.
+     */
+    private CompletableFuture<AgentResponse> invokeAgentWithTimeout(final Agent agent,
+                    AgentRequest agentRequest, long remaining, Executor executor) {
+        if (!agentRequest.hasDeadline()) {
+            return startAgent(agent, agentRequest, executor);
+        }
+
+        final CompletableFuture<AgentResponse> future =
+                        startAgent(agent, agentRequest, executor);
+        final CompletableFuture<AgentResponse> result = new CompletableFuture<AgentResponse>();
+        final ScheduledFuture<?> timer = getScheduler().schedule(() -> {
+            if (result.complete(null)) {
+                logger.warn("Agent " + agent.getName() + " timed out");
+                future.cancel(true);
+            }
+        }, remaining, TimeUnit.NANOSECONDS);
+        future.whenComplete((response, error) -> {
+            timer.cancel(false);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Call an agent on the current thread and record its latency
+     */
+    private AgentResponse processAgent(Agent agent, AgentRequest agentRequest) {
+        long startTime = System.nanoTime();
+        try {
+            return agent.process(agentRequest);
+        } finally {
+            metrics.histogram(AGENT_METRIC_PREFIX + agent.getName()).recordSince(startTime);
+        }
+    }
+
+    /**
+     * Start an agent asynchronously and record its latency
+     * <p>
+     * Calls that are cancelled are not recorded.
+     */
+    private CompletableFuture<AgentResponse> startAgent(final Agent agent,
+                    AgentRequest agentRequest, Executor executor) {
+        final long startTime = System.nanoTime();
+        final CompletableFuture<AgentResponse> future =
+                        AsyncAgentAdapter.adapt(agent, executor).processAsync(agentRequest);
+        future.whenComplete((response, error) -> {
+            if (!future.isCancelled()) {
+                metrics.histogram(AGENT_METRIC_PREFIX + agent.getName()).recordSince(startTime);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reject a request that was not admitted
+     */
+    private Response shed(Pipeline pipeline, Request request) {
+        logger.debug("Rejecting request because of overload: " + request.getText());
+        metrics.counter(SHED_METRIC).increment();
+        Response response = new Response(new ResponseStatus(Code.OVERLOADED));
+        return completeRequest(pipeline, response, new Report(request));
+    }
+
+    private static boolean isAnswered(Response response) {
+        return response != null && response.getStatus().getCode() != Code.NO_RESPONSE_FROM_AGENT;
+    }
+
+    private void countResponse(Response response) {
+        metrics.counter(REQUESTS_METRIC).increment();
+        if (!response.isSuccess()) {
+            metrics.counter(ERRORS_METRIC).increment();
+        }
+    }
+
+    private Bulkhead getBulkhead(Agent agent) {
+        if (bulkheads == null) {
+            return null;
+        }
+        return bulkheads.get(agent);
+    }
+
+    private <T> T waitFor(CompletableFuture<T> future, T interruptedValue) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return interruptedValue;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private synchronized Executor getExecutor() {
+        if (executor != null) {
+            return executor;
+        }
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("dorset-app-"));
+        }
+        return defaultExecutor;
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                            new DaemonThreadFactory("dorset-scheduler-"));
+        }
+        return scheduler;
+    }
+
+    /**
+     * Builder for applications and pipelines
+     */
+    public static class Builder {
+        private Router router;
+        private Reporter reporter = new NullReporter();
+        private final List<RequestFilter> requestFilters = new ArrayList<RequestFilter>();
+        private final List<ResponseFilter> responseFilters = new ArrayList<ResponseFilter>();
+        private final List<ShutdownListener> shutdownListeners = new ArrayList<ShutdownListener>();
+        private User user;
+
+        /**
+         * Create a builder
+         *
+         * @param router  a router that finds the appropriate agent for a request
+         */
+        public Builder(Router router) {
+            this.router = router;
+        }
+
+        /**
+         * Create a builder that starts with the configuration of a pipeline
+         *
+         * @param pipeline  the pipeline to copy
+         */
+        public Builder(Pipeline pipeline) {
+            this.router = pipeline.getRouter();
+            this.reporter = pipeline.getReporter();
+            this.requestFilters.addAll(pipeline.getRequestFilters());
+            this.responseFilters.addAll(pipeline.getResponseFilters());
+        }
+
+        /**
+         * Set the router
+         *
+         * @param router  a router that finds the appropriate agent for a request
+         * @return this
+         */
+        public Builder setRouter(Router router) {
+            this.router = router;
+            return this;
+        }
+
+        /**
+         * Set the reporter (defaults to a null reporter)
+         *
+         * @param reporter  a reporter which logs request handling
+         * @return this
+         */
+        public Builder setReporter(Reporter reporter) {
+            this.reporter = reporter;
+            return this;
+        }
+
+        /**
+         * Add a request filter
+         *
+         * @param filter  a RequestFilter
+         * @return this
+         */
+        public Builder addRequestFilter(RequestFilter filter) {
+            requestFilters.add(filter);
+            return this;
+        }
+
+        /**
+         * Add a response filter
+         *
+         * @param filter  a ResponseFilter
+         * @return this
+         */
+        public Builder addResponseFilter(ResponseFilter filter) {
+            responseFilters.add(filter);
+            return this;
+        }
+
+        /**
+         * Add a shutdown listener
+         * <p>
+         * Shutdown listeners belong to the application and are not part of
+         * the pipeline.
+         *
+         * @param listener  a listener that runs when shutdown() is called
+         * @return this
+         */
+        public Builder addShutdownListener(ShutdownListener listener) {
+            shutdownListeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Set a User for a single user Dorset application
+         *
+         * @param user  the User of a single user application
+         * @return this
+         */
+        public Builder setUser(User user) {
+            this.user = user;
+            return this;
+        }
+
+        /**
+         * Create an immutable pipeline from the filters, router, and reporter
+         *
+         * @return a new pipeline
+         */
+        public Pipeline buildPipeline() {
+            return new Pipeline(router, reporter, requestFilters, responseFilters);
+        }
+
+        /**
+         * Create the application
+         *
+         * @return a new application
+         */
+        public Application build() {
+            return new Application(this);
+        }
+    }
+
+    /**
+     * How the routed agents are called
+     * <ul>
+     * <li>SEQUENTIAL - agents are called one at a time and the first response is used
+     * <li>CONCURRENT - agents are started at the same time and the first
+     *     successful response is used
+     * <li>HEDGED - agents are started one at a time separated by the hedge delay
+     *     and the first successful response is used
+     * </ul>
+     */
+    public enum DispatchMode {
+        SEQUENTIAL,
+        CONCURRENT,
+        HEDGED
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.filters.RequestFilter;
+import edu.jhuapl.dorset.filters.ResponseFilter;
+import edu.jhuapl.dorset.filters.TextBuffer;
+import edu.jhuapl.dorset.filters.TextRequestFilter;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+import edu.jhuapl.dorset.reporting.Reporter;
+import edu.jhuapl.dorset.routing.Router;
+
+/**
+ * Request pipeline of an application
+ * <p>
+ * The pipeline holds the filters, router, reporter, and agents that handle
+ * requests. It cannot be changed after it is created so it can be shared by
+ * all the threads processing requests. An application is reconfigured by
+ * replacing its pipeline with {@link Application#setPipeline(Pipeline)}.
+ * <p>
+ * Pipelines are created with {@link Application.Builder#buildPipeline()}.
+ */
+public final class Pipeline {
+    private final Router router;
+    private final Reporter reporter;
+    private final Agent[] agents;
+    private final Map<String, Agent> agentsByName;
+    private final RequestFilter[] requestFilters;
+    private final TextRequestFilter[] textFilters;
+    private final String[] requestFilterMetrics;
+    private final ResponseFilter[] responseFilters;
+    private final String[] responseFilterMetrics;
+
+    Pipeline(Router router, Reporter reporter, List<RequestFilter> requestFilters,
+                    List<ResponseFilter> responseFilters) {
+        if (router == null) {
+            throw new IllegalArgumentException("A pipeline requires a router");
+        }
+        if (reporter == null) {
+            throw new IllegalArgumentException("A pipeline requires a reporter");
+        }
+        this.router = router;
+        this.reporter = reporter;
+        this.agents = router.getAgents();
+        this.agentsByName = new HashMap<String, Agent>();
+        if (agents != null) {
+            for (Agent agent : agents) {
+                agentsByName.putIfAbsent(agent.getName(), agent);
+            }
+        }
+        this.requestFilters = requestFilters.toArray(new RequestFilter[requestFilters.size()]);
+        this.requestFilterMetrics = new String[this.requestFilters.length];
+        this.textFilters = new TextRequestFilter[this.requestFilters.length];
+        for (int i = 0; i < this.requestFilters.length; i++) {
+            if (this.requestFilters[i] instanceof TextRequestFilter) {
+                textFilters[i] = (TextRequestFilter) this.requestFilters[i];
+            }
+            requestFilterMetrics[i] = Application.FILTER_METRIC_PREFIX
+                            + this.requestFilters[i].getClass().getSimpleName();
+        }
+        this.responseFilters = responseFilters.toArray(new ResponseFilter[responseFilters.size()]);
+        this.responseFilterMetrics = new String[this.responseFilters.length];
+        for (int i = 0; i < this.responseFilters.length; i++) {
+            responseFilterMetrics[i] = Application.FILTER_METRIC_PREFIX
+                            + this.responseFilters[i].getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Get the router
+     *
+     * @return the router
+     */
+    public Router getRouter() {
+        return router;
+    }
+
+    /**
+     * Get the reporter
+     *
+     * @return the reporter
+     */
+    public Reporter getReporter() {
+        return reporter;
+    }
+
+    /**
+     * Get the agents of the router
+     *
+     * @return array of agents (do not modify)
+     */
+    public Agent[] getAgents() {
+        return agents;
+    }
+
+    /**
+     * Get the request filters
+     *
+     * @return unmodifiable list of request filters in order
+     */
+    public List<RequestFilter> getRequestFilters() {
+        return Collections.unmodifiableList(Arrays.asList(requestFilters));
+    }
+
+    /**
+     * Get the response filters
+     *
+     * @return unmodifiable list of response filters in order
+     */
+    public List<ResponseFilter> getResponseFilters() {
+        return Collections.unmodifiableList(Arrays.asList(responseFilters));
+    }
+
+    /**
+     * Find an agent by name
+     *
+     * @param name  the name of the agent
+     * @return the agent or null if not found
+     */
+    Agent getAgent(String name) {
+        return agentsByName.get(name);
+    }
+
+    /**
+     * Run the request filters and record their latency
+     * <p>
+     * Adjacent text filters share one text buffer and the request text is
+     * set once when they are done.
+     */
+    Request filterRequest(Request request, MetricsRegistry metrics) {
+        final RequestFilter[] filters = requestFilters;
+        if (filters.length == 0) {
+            return request;
+        }
+        TextBuffer text = null;
+        for (int i = 0; i < filters.length; i++) {
+            long startTime = System.nanoTime();
+            if (textFilters[i] != null && (text != null || request.getText() != null)) {
+                if (text == null) {
+                    text = new TextBuffer(request.getText());
+                }
+                textFilters[i].rewrite(text);
+            } else {
+                setText(request, text);
+                text = null;
+                request = filters[i].filter(request);
+            }
+            metrics.histogram(requestFilterMetrics[i]).recordSince(startTime);
+        }
+        setText(request, text);
+        return request;
+    }
+
+    /**
+     * Run the response filters and record their latency
+     */
+    Response filterResponse(Response response, MetricsRegistry metrics) {
+        final ResponseFilter[] filters = responseFilters;
+        for (int i = 0; i < filters.length; i++) {
+            long startTime = System.nanoTime();
+            response = filters[i].filter(response);
+            metrics.histogram(responseFilterMetrics[i]).recordSince(startTime);
+        }
+        return response;
+    }
+
+    private static void setText(Request request, TextBuffer text) {
+        if (text != null && text.isModified()) {
+            request.setText(text.toString());
+        }
+    }
+}
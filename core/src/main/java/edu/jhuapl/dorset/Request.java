@@ -17,13 +17,21 @@
 package edu.jhuapl.dorset;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import edu.jhuapl.dorset.nlp.AnalyzedText;
 import edu.jhuapl.dorset.users.User;
 
 /**
  * Dorset Request
  * <p>
  * Represents a question or command to a Dorset application.
+ * <p>
+ * A request can have a deadline which limits how long the application and
+ * its agents spend handling it. See {@link #setTimeout(long, TimeUnit)}.
+ * <p>
+ * The text is tokenized at most once. Routers and agents share the result
+ * through {@link #getAnalyzedText()}.
  */
 public class Request {
     /** Maximum length of the identifier string ({@value #MAX_ID_LENGTH}) */
@@ -32,6 +40,8 @@ public class Request {
     private String text;
     private final String id;
     private final User user;
+    private Long deadline;
+    private transient AnalyzedText analyzedText;
 
     /**
      * Create a request
@@ -107,6 +117,22 @@ public class Request {
      */
     public void setText(String text) {
         this.text = text;
+        this.analyzedText = null;
+    }
+
+    /**
+     * Get the analyzed form of the text
+     * <p>
+     * The text is lowercased and tokenized on the first call and the result
+     * is reused until the text changes.
+     *
+     * @return the analyzed text
+     */
+    public AnalyzedText getAnalyzedText() {
+        if (analyzedText == null) {
+            analyzedText = new AnalyzedText(text);
+        }
+        return analyzedText;
     }
 
     /**
@@ -126,5 +152,57 @@ public class Request {
     public User getUser() {
         return user;
     }
- 
+
+    /**
+     * Set the time budget for handling the request
+     * <p>
+     * The deadline is measured from when this method is called.
+     *
+     * @param timeout  the length of time the request may take
+     * @param unit  the time unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    /**
+     * Set the deadline of the request
+     *
+     * @param deadline  the deadline in terms of System.nanoTime() or null for no deadline
+     */
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Get the deadline of the request
+     *
+     * @return the deadline in terms of System.nanoTime() or null if there is no deadline
+     */
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Does the request have a deadline?
+     *
+     * @return true if it has a deadline
+     */
+    public boolean hasDeadline() {
+        return deadline != null;
+    }
+
+    /**
+     * Get the time remaining before the deadline
+     *
+     * @param unit  the time unit of the return value
+     * @return the remaining time (zero or negative if the deadline passed) or
+     *         Long.MAX_VALUE if the request does not have a deadline
+     */
+    public long getRemainingTime(TimeUnit unit) {
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
 }
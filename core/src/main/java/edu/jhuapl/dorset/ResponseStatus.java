@@ -113,6 +113,7 @@ public class ResponseStatus {
         NO_AVAILABLE_AGENT(101),
         NO_RESPONSE_FROM_AGENT(102),
         INVALID_RESPONSE_FROM_AGENT(103),
+        OVERLOADED(104),
         AGENT_DID_NOT_UNDERSTAND_REQUEST(200),
         AGENT_DID_NOT_KNOW_ANSWER(201),
         AGENT_CANNOT_COMPLETE_ACTION(202),
@@ -156,6 +157,7 @@ public class ResponseStatus {
         messageMap.put(Code.NO_AVAILABLE_AGENT, "No agent was available to handle this request.");
         messageMap.put(Code.NO_RESPONSE_FROM_AGENT, "The agent did not provide a response.");
         messageMap.put(Code.INVALID_RESPONSE_FROM_AGENT, "An error occurred getting response from agent.");
+        messageMap.put(Code.OVERLOADED, "Too many requests are being processed. Try again later.");
         messageMap.put(Code.AGENT_DID_NOT_UNDERSTAND_REQUEST, "The agent did not understand the request.");
         messageMap.put(Code.AGENT_DID_NOT_KNOW_ANSWER, "The agent did not know the answer.");
         messageMap.put(Code.AGENT_CANNOT_COMPLETE_ACTION, "The agent could not complete the requested action.");
@@ -16,17 +16,24 @@
  */
 package edu.jhuapl.dorset.agents;
 
+import java.util.concurrent.TimeUnit;
+
 import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
 import edu.jhuapl.dorset.users.User;
 
 /**
  * Request sent to an agent
  * <p>
  * This class is part of the public API for remote agent web services.
+ * The deadline is not serialized. Remote agents receive the remaining
+ * time budget as a header instead.
  */
 public class AgentRequest {
     private String text;
     private User user;
+    private transient Long deadline;
+    private transient AnalyzedText analyzedText;
 
     public AgentRequest() {}
     
@@ -39,6 +46,10 @@ public class AgentRequest {
     public AgentRequest(Request request) {
         this.text = request.getText();
         this.user = request.getUser();
+        this.deadline = request.getDeadline();
+        if (request.getText() != null) {
+            this.analyzedText = request.getAnalyzedText();
+        }
     }
 
     /**
@@ -70,6 +81,7 @@ public class AgentRequest {
      */
     public void setText(String text) {
         this.text = text;
+        this.analyzedText = null;
     }
 
     /**
@@ -81,6 +93,21 @@ public class AgentRequest {
         return text;
     }
     
+    /**
+     * Get the analyzed form of the text
+     * <p>
+     * When created from a request, this is shared with the request so the
+     * text is not tokenized again.
+     *
+     * @return the analyzed text
+     */
+    public AnalyzedText getAnalyzedText() {
+        if (analyzedText == null) {
+            analyzedText = new AnalyzedText(text);
+        }
+        return analyzedText;
+    }
+
     /**
      * Get the user of the request
      *
@@ -98,4 +125,48 @@ public class AgentRequest {
     public void setUser(User user) {
         this.user = user;
     }
+
+    /**
+     * Get the deadline of the request
+     *
+     * @return the deadline in terms of System.nanoTime() or null if there is no deadline
+     */
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Set the deadline of the request
+     *
+     * @param deadline  the deadline in terms of System.nanoTime() or null for no deadline
+     */
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Does the request have a deadline?
+     *
+     * @return true if it has a deadline
+     */
+    public boolean hasDeadline() {
+        return deadline != null;
+    }
+
+    /**
+     * Get the time remaining before the deadline
+     * <p>
+     * Agents that call other services should use this to limit how long
+     * they wait.
+     *
+     * @param unit  the time unit of the return value
+     * @return the remaining time (zero or negative if the deadline passed) or
+     *         Long.MAX_VALUE if the request does not have a deadline
+     */
+    public long getRemainingTime(TimeUnit unit) {
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.agents;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An agent that handles requests without blocking the caller.
+ * <p>
+ * Asynchronous agents return a future that completes when the response is
+ * available. This lets an application wait on slow services (web APIs or
+ * remote agents) without holding a thread for each request. Existing
+ * synchronous agents can be adapted with {@link AsyncAgentAdapter}.
+ */
+public interface AsyncAgent extends Agent {
+
+    /**
+     * Process a request asynchronously
+     * <p>
+     * Cancelling the returned future should stop any work still in progress
+     * if the agent is able to.
+     *
+     * @param request  Request object
+     * @return future that completes with the response to the request
+     */
+    public CompletableFuture<AgentResponse> processAsync(AgentRequest request);
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.agents;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Adapts a synchronous agent to the asynchronous agent contract
+ * <p>
+ * The wrapped agent runs on the supplied executor. Cancelling the returned
+ * future interrupts the thread running the agent.
+ */
+public class AsyncAgentAdapter implements AsyncAgent {
+    private final Agent agent;
+    private final Executor executor;
+
+    /**
+     * Create an adapter
+     *
+     * @param agent  the synchronous agent
+     * @param executor  the executor that runs the agent
+     */
+    public AsyncAgentAdapter(Agent agent, Executor executor) {
+        this.agent = agent;
+        this.executor = executor;
+    }
+
+    /**
+     * Get an asynchronous version of an agent
+     * <p>
+     * Agents that are already asynchronous are returned unchanged.
+     *
+     * @param agent  the agent
+     * @param executor  the executor for running synchronous agents
+     * @return an asynchronous agent
+     */
+    public static AsyncAgent adapt(Agent agent, Executor executor) {
+        if (agent instanceof AsyncAgent) {
+            return (AsyncAgent) agent;
+        }
+        return new AsyncAgentAdapter(agent, executor);
+    }
+
+    /**
+     * Get the wrapped agent
+     *
+     * @return the synchronous agent
+     */
+    public Agent getAgent() {
+        return agent;
+    }
+
+    @Override
+    public String getName() {
+        return agent.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        agent.setName(name);
+    }
+
+    @Override
+    public Description getDescription() {
+        return agent.getDescription();
+    }
+
+    @Override
+    public void setDescription(Description description) {
+        agent.setDescription(description);
+    }
+
+    @Override
+    public AgentResponse process(AgentRequest request) {
+        return agent.process(request);
+    }
+
+    @Override
+    public CompletableFuture<AgentResponse> processAsync(final AgentRequest request) {
+        final CompletableFuture<AgentResponse> future = new CompletableFuture<AgentResponse>();
+        final Callable<AgentResponse> call = () -> agent.process(request);
+        final FutureTask<AgentResponse> task = new FutureTask<AgentResponse>(call) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    future.complete(get());
+                } catch (ExecutionException e) {
+                    future.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    // cannot happen since the task is done
+                    future.completeExceptionally(e);
+                }
+            }
+        };
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.agents;
+
+/**
+ * An agent that declares how long its responses can be cached
+ * <p>
+ * The application only caches responses from agents that implement this
+ * interface. Agents that do not implement it, like agents with side effects
+ * or remote agents whose answers may change, are called for every request.
+ */
+public interface CacheableAgent extends Agent {
+
+    /** Time to live that prevents a response from being cached */
+    public static final long NO_CACHE = 0;
+
+    /**
+     * Get how long a successful response to the request can be cached
+     *
+     * @param request  the request that was answered
+     * @return time to live in milliseconds or {@link #NO_CACHE}
+     */
+    public long getCacheTimeToLive(AgentRequest request);
+}
@@ -16,6 +16,8 @@
  */
 package edu.jhuapl.dorset.agents;
 
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,8 +35,15 @@ import edu.jhuapl.dorset.http.HttpResponse;
 
 /**
  * Agent wrapper for remote web services that implement the agent API
+ * <p>
+ * If the request has a deadline, the remaining time in milliseconds is sent
+ * to the remote agent in the {@value #TIMEOUT_HEADER} header and also limits
+ * the http timeouts.
  */
 public class RemoteAgent extends AbstractAgent {
+    /** Header with the remaining time budget of the request in milliseconds */
+    public static final String TIMEOUT_HEADER = "X-Dorset-Timeout";
+
     private static final String REQUEST_ENDPOINT = "request";
     private static final String PING_ENDPOINT = "ping";
     private static final String PING_RESPONSE = "pong";
@@ -70,6 +79,14 @@ public class RemoteAgent extends AbstractAgent {
         String json = gson.toJson(request);
         HttpRequest httpRequest = new HttpRequest(HttpMethod.POST, requestUrl).setBody(json,
                         ContentType.APPLICATION_JSON);
+        if (request.hasDeadline()) {
+            long remaining = request.getRemainingTime(TimeUnit.MILLISECONDS);
+            if (remaining <= 0) {
+                return new AgentResponse(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT);
+            }
+            int timeout = (int) Math.min(remaining, Integer.MAX_VALUE);
+            httpRequest.setTimeout(timeout).addHeader(TIMEOUT_HEADER, String.valueOf(timeout));
+        }
         HttpResponse httpResponse = client.execute(httpRequest);
         if (httpResponse != null) {
             String text = httpResponse.asString();
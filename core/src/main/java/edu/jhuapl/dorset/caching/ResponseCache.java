@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.caching;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import edu.jhuapl.dorset.Response;
+
+/**
+ * Response cache
+ * <p>
+ * A bounded cache of responses keyed on the request. Entries expire after
+ * their time to live and the least recently used entry is evicted when the
+ * cache is full.
+ */
+public class ResponseCache {
+    /** Default maximum number of cached responses */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    /** Default time to live of a cached response ({@value} minutes) */
+    public static final long DEFAULT_TIME_TO_LIVE = 10;
+
+    private final int maxSize;
+    private final long defaultTimeToLive;
+    private final Map<String, CachedResponse> cache;
+    private long hits;
+    private long misses;
+
+    /**
+     * Create a response cache with the default size and time to live
+     */
+    public ResponseCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Create a response cache
+     *
+     * @param maxSize  the maximum number of responses to cache
+     * @param defaultTimeToLive  time to live for entries put without one
+     * @param unit  the time unit of the time to live
+     */
+    public ResponseCache(int maxSize, long defaultTimeToLive, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.defaultTimeToLive = unit.toNanos(defaultTimeToLive);
+        this.cache = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > ResponseCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get a cached response
+     *
+     * @param key  the cache key
+     * @return the cached response or null if missing or expired
+     */
+    public synchronized CachedResponse get(String key) {
+        CachedResponse entry = cache.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            cache.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Cache a response using the default time to live
+     *
+     * @param key  the cache key
+     * @param response  the response to cache
+     * @param agentName  the name of the agent that provided the response
+     */
+    public void put(String key, Response response, String agentName) {
+        put(key, response, agentName, defaultTimeToLive, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cache a response
+     * <p>
+     * Nothing is cached if the time to live is not positive.
+     *
+     * @param key  the cache key
+     * @param response  the response to cache
+     * @param agentName  the name of the agent that provided the response
+     * @param timeToLive  how long the response can be used
+     * @param unit  the time unit of the time to live
+     */
+    public synchronized void put(String key, Response response, String agentName,
+                    long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0) {
+            return;
+        }
+        long expiration = System.nanoTime() + Math.min(unit.toNanos(timeToLive), Long.MAX_VALUE / 2);
+        cache.put(key, new CachedResponse(response, agentName, expiration));
+    }
+
+    /**
+     * Remove all cached responses
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Get the number of cached responses including expired ones not yet removed
+     *
+     * @return number of cached responses
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Get the number of cache hits
+     *
+     * @return number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of cache misses
+     *
+     * @return number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * A cached response and the agent that provided it
+     */
+    public static class CachedResponse {
+        private final Response response;
+        private final String agentName;
+        private final long expiration;
+
+        CachedResponse(Response response, String agentName, long expiration) {
+            this.response = response;
+            this.agentName = agentName;
+            this.expiration = expiration;
+        }
+
+        /**
+         * Get the response
+         *
+         * @return the cached response
+         */
+        public Response getResponse() {
+            return response;
+        }
+
+        /**
+         * Get the name of the agent that provided the response
+         *
+         * @return agent name
+         */
+        public String getAgentName() {
+            return agentName;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiration >= 0;
+        }
+    }
+}
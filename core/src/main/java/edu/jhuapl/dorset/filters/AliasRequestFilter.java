@@ -16,22 +16,22 @@
  */
 package edu.jhuapl.dorset.filters;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.regex.Pattern;
-
-import edu.jhuapl.dorset.Request;
 
 /**
  * Replace words or phrases in a request with another string
  *
  * For example, when the string "jhu" is in the request, we may want to expand it
  * to "Johns Hopkins University".
+ *
+ * Aliases match whole words without regard to case. All the aliases are
+ * replaced in a single pass over the request text and the longest alias
+ * wins when several start at the same place, so the result does not depend
+ * on the order of the map.
  */
-public class AliasRequestFilter implements RequestFilter {
+public class AliasRequestFilter implements TextRequestFilter {
     private Map<String, String> aliasMap;
-    private Map<Pattern, String> patternAliasMap;
+    private AliasTrie aliases;
 
     /**
      * Alias Request Filter
@@ -44,25 +44,15 @@ public class AliasRequestFilter implements RequestFilter {
     public AliasRequestFilter(Map<String, String> aliasMap) {
         this.aliasMap = aliasMap;
         if (this.aliasMap != null) {
-            this.patternAliasMap = new HashMap<Pattern, String>();
-            for (Map.Entry<String, String> entry : this.aliasMap.entrySet()) {
-                String regex = "\\b" + entry.getKey() + "\\b";
-                this.patternAliasMap.put(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), entry.getValue());
-            }
+            this.aliases = new AliasTrie(this.aliasMap);
         }
     }
 
     @Override
-    public Request filter(Request request) {
-        if (this.patternAliasMap != null) {
-            String filteredResponseText = request.getText();
-            for (Entry<Pattern, String> entry : this.patternAliasMap.entrySet()) {
-                filteredResponseText = entry.getKey().matcher(filteredResponseText)
-                        .replaceAll(entry.getValue());
-            }
-            request.setText(filteredResponseText);
+    public void rewrite(TextBuffer text) {
+        if (this.aliases != null) {
+            this.aliases.rewrite(text);
         }
-        return request;
     }
 
 }
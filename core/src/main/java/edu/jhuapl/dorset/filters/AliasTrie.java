@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rewrites all the aliases in a text in one pass
+ * <p>
+ * The alias keys are compiled into a trie of lowercased characters. The
+ * text is scanned from left to right and at each position the longest key
+ * that starts and ends on a word boundary is found. The matches are then
+ * replaced in place from right to left so the offsets of earlier matches
+ * stay valid. Replacements are not scanned again, so the result does not
+ * depend on the order of the aliases.
+ */
+final class AliasTrie {
+    private final char[][] labels;
+    private final int[][] children;
+    private final String[] replacements;
+
+    /**
+     * Compile the aliases
+     * <p>
+     * Keys that differ only by case are the same key. The last one in the
+     * iteration order of the map is used. Empty keys are ignored.
+     *
+     * @param aliases  map from alias keys to replacements
+     */
+    public AliasTrie(Map<String, String> aliases) {
+        List<TreeMap<Character, Integer>> nodes = new ArrayList<TreeMap<Character, Integer>>();
+        List<String> values = new ArrayList<String>();
+        nodes.add(new TreeMap<Character, Integer>());
+        values.add(null);
+        for (Map.Entry<String, String> entry : aliases.entrySet()) {
+            String key = entry.getKey();
+            if (key == null || key.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char ch = Character.toLowerCase(key.charAt(i));
+                Integer next = nodes.get(node).get(ch);
+                if (next == null) {
+                    next = nodes.size();
+                    nodes.get(node).put(ch, next);
+                    nodes.add(new TreeMap<Character, Integer>());
+                    values.add(null);
+                }
+                node = next;
+            }
+            values.set(node, entry.getValue() == null ? "" : entry.getValue());
+        }
+
+        labels = new char[nodes.size()][];
+        children = new int[nodes.size()][];
+        for (int i = 0; i < nodes.size(); i++) {
+            TreeMap<Character, Integer> edges = nodes.get(i);
+            labels[i] = new char[edges.size()];
+            children[i] = new int[edges.size()];
+            int index = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[i][index] = edge.getKey();
+                children[i][index] = edge.getValue();
+                index++;
+            }
+        }
+        replacements = values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * Replace the aliases in a text
+     *
+     * @param text  the text to rewrite in place
+     * @return true if any alias was replaced
+     */
+    public boolean rewrite(TextBuffer text) {
+        // start, end and node of each match
+        int[] matches = null;
+        int count = 0;
+        int position = 0;
+        while (position < text.length()) {
+            long match = longestMatch(text, position);
+            if (match < 0) {
+                position++;
+                continue;
+            }
+            int end = (int) (match >>> 32);
+            if (matches == null) {
+                matches = new int[12];
+            } else if (count == matches.length) {
+                matches = Arrays.copyOf(matches, count * 2);
+            }
+            matches[count++] = position;
+            matches[count++] = end;
+            matches[count++] = (int) match;
+            position = end;
+        }
+        for (int i = count - 3; i >= 0; i -= 3) {
+            text.replace(matches[i], matches[i + 1], replacements[matches[i + 2]]);
+        }
+        return count > 0;
+    }
+
+    /**
+     * Find the longest alias that starts at a position
+     *
+     * @return the end of the match in the high 32 bits and its node in the
+     *         low 32 bits or -1 if there is no match
+     */
+    private long longestMatch(CharSequence text, int start) {
+        if (!isBoundary(text, start)) {
+            return -1;
+        }
+        int node = 0;
+        long match = -1;
+        for (int i = start; i < text.length(); i++) {
+            node = child(node, Character.toLowerCase(text.charAt(i)));
+            if (node < 0) {
+                break;
+            }
+            if (replacements[node] != null && isBoundary(text, i + 1)) {
+                match = ((long) (i + 1) << 32) | node;
+            }
+        }
+        return match;
+    }
+
+    private int child(int node, char ch) {
+        char[] edges = labels[node];
+        int low = 0;
+        int high = edges.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (edges[mid] < ch) {
+                low = mid + 1;
+            } else if (edges[mid] > ch) {
+                high = mid - 1;
+            } else {
+                return children[node][mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check for a word boundary like \b in a regular expression
+     */
+    private static boolean isBoundary(CharSequence text, int index) {
+        boolean before = index > 0 && isWordChar(text.charAt(index - 1));
+        boolean after = index < text.length() && isWordChar(text.charAt(index));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_';
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import edu.jhuapl.dorset.Response;
+
+/**
+ * Payload Compaction Filter
+ *
+ * This filter shrinks the payloads of successful responses.
+ * JSON payloads are serialized without whitespace. String values that hold
+ * JSON objects or arrays are compacted too.
+ *
+ * Embedded images can be downscaled to a maximum width and height. With an
+ * {@link ImageStore}, they are stored and replaced by an IMAGE_URL response
+ * so the image can be cached and loaded separately. A payload that cannot
+ * be parsed is left as is.
+ *
+ * The application caches responses after filtering them, so an image is
+ * converted and stored once per cached answer rather than on every hit.
+ */
+public class PayloadCompactionFilter implements ResponseFilter {
+    private final Logger logger = LoggerFactory.getLogger(PayloadCompactionFilter.class);
+
+    private int maxImageSize;
+    private ImageStore imageStore;
+
+    /**
+     * Set the maximum width and height of embedded images
+     *
+     * @param maxImageSize  size in pixels (0 to keep the original size)
+     */
+    public void setMaxImageSize(int maxImageSize) {
+        if (maxImageSize < 0) {
+            throw new IllegalArgumentException("Image size cannot be negative: " + maxImageSize);
+        }
+        this.maxImageSize = maxImageSize;
+    }
+
+    /**
+     * Set the store for turning embedded images into URLs
+     *
+     * @param imageStore  the image store or null to keep images embedded
+     */
+    public void setImageStore(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    @Override
+    public Response filter(Response response) {
+        if (!response.isSuccess() || response.getPayload() == null) {
+            return response;
+        }
+        if (response.getType() == Response.Type.JSON) {
+            return compactJson(response);
+        } else if (response.getType() == Response.Type.IMAGE_EMBED) {
+            return compactImage(response);
+        }
+        return response;
+    }
+
+    private Response compactJson(Response response) {
+        String payload = response.getPayload();
+        try {
+            String compacted = compact(new JsonParser().parse(payload)).toString();
+            if (compacted.length() < payload.length()) {
+                return new Response(response.getType(), response.getText(), compacted);
+            }
+        } catch (JsonParseException e) {
+            logger.debug("Cannot compact JSON payload", e);
+        }
+        return response;
+    }
+
+    /**
+     * Compact the JSON held in string values
+     */
+    private static JsonElement compact(JsonElement element) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                entry.setValue(compact(entry.getValue()));
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, compact(array.get(i)));
+            }
+        } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            String value = element.getAsString();
+            String trimmed = value.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                try {
+                    String nested = compact(new JsonParser().parse(trimmed)).toString();
+                    if (nested.length() < value.length()) {
+                        return new JsonPrimitive(nested);
+                    }
+                } catch (JsonParseException e) {
+                    // just a string that looks like JSON
+                }
+            }
+        }
+        return element;
+    }
+
+    private Response compactImage(Response response) {
+        if (maxImageSize == 0 && imageStore == null) {
+            return response;
+        }
+        String payload = response.getPayload();
+        String prefix = "";
+        int comma = payload.indexOf(',');
+        if (payload.startsWith("data:") && comma > 0) {
+            prefix = payload.substring(0, comma + 1);
+            payload = payload.substring(comma + 1);
+        }
+        try {
+            byte[] original = Base64.getMimeDecoder().decode(payload);
+            byte[] image = original;
+            if (maxImageSize > 0) {
+                image = downscale(original, maxImageSize);
+            }
+            if (imageStore != null) {
+                String url = imageStore.store(image);
+                return new Response(Response.Type.IMAGE_URL, response.getText(), url);
+            }
+            if (image == original) {
+                return response;
+            }
+            String encoded = prefix + Base64.getEncoder().encodeToString(image);
+            if (encoded.length() < response.getPayload().length()) {
+                return new Response(response.getType(), response.getText(), encoded);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("Cannot compact image payload", e);
+        }
+        return response;
+    }
+
+    /**
+     * Scale an image down to fit in a square in its original format
+     *
+     * @return the scaled image or the original if it is small enough
+     */
+    static byte[] downscale(byte[] data, int maxSize) throws IOException {
+        String format = null;
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(
+                        new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return data;
+            }
+            ImageReader reader = readers.next();
+            try {
+                format = reader.getFormatName();
+                reader.setInput(input);
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxSize && height <= maxSize) {
+            return data;
+        }
+        double scale = Math.min((double) maxSize / width, (double) maxSize / height);
+        int newWidth = Math.max(1, (int) Math.round(width * scale));
+        int newHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = image.getColorModel().hasAlpha()
+                        ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(newWidth, newHeight, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, newWidth, newHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaled, format, output)) {
+            return data;
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Stores images so they can be referenced by URL
+     */
+    public interface ImageStore {
+        /**
+         * Store an image
+         *
+         * @param image  the encoded image
+         * @return the URL of the image
+         * @throws IOException if the image cannot be stored
+         */
+        public String store(byte[] image) throws IOException;
+    }
+}
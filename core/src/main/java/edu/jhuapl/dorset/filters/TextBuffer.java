@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+/**
+ * Mutable text of a request shared by text filters
+ * <p>
+ * The buffer reads from the original string until the first edit, so
+ * filters that only scan the text do not copy it. After that, edits are
+ * made in place in a single character buffer.
+ */
+public final class TextBuffer implements CharSequence {
+    private final String original;
+    private StringBuilder builder;
+
+    /**
+     * Create a buffer
+     *
+     * @param text  the original text
+     */
+    public TextBuffer(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        this.original = text;
+    }
+
+    @Override
+    public int length() {
+        return builder == null ? original.length() : builder.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return builder == null ? original.charAt(index) : builder.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return builder == null ? original.subSequence(start, end) : builder.subSequence(start, end);
+    }
+
+    /**
+     * Find a string in the text
+     *
+     * @param str  the string to find
+     * @param fromIndex  the index to start searching from
+     * @return the index of the string or -1 if not found
+     */
+    public int indexOf(String str, int fromIndex) {
+        return builder == null ? original.indexOf(str, fromIndex) : builder.indexOf(str, fromIndex);
+    }
+
+    /**
+     * Replace a span of the text
+     *
+     * @param start  the start of the span (inclusive)
+     * @param end  the end of the span (exclusive)
+     * @param str  the replacement
+     * @return this
+     */
+    public TextBuffer replace(int start, int end, String str) {
+        edit().replace(start, end, str);
+        return this;
+    }
+
+    /**
+     * Delete a span of the text
+     *
+     * @param start  the start of the span (inclusive)
+     * @param end  the end of the span (exclusive)
+     * @return this
+     */
+    public TextBuffer delete(int start, int end) {
+        if (start != end) {
+            edit().delete(start, end);
+        }
+        return this;
+    }
+
+    /**
+     * Remove leading and trailing whitespace like {@link String#trim()}
+     *
+     * @return this
+     */
+    public TextBuffer trim() {
+        int length = length();
+        int end = length;
+        while (end > 0 && charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int start = 0;
+        while (start < end && charAt(start) <= ' ') {
+            start++;
+        }
+        delete(end, length);
+        return delete(0, start);
+    }
+
+    /**
+     * Check whether the text was edited
+     *
+     * @return true if any span was replaced or deleted
+     */
+    public boolean isModified() {
+        return builder != null;
+    }
+
+    @Override
+    public String toString() {
+        return builder == null ? original : builder.toString();
+    }
+
+    private StringBuilder edit() {
+        if (builder == null) {
+            builder = new StringBuilder(original.length() + 16).append(original);
+        }
+        return builder;
+    }
+}
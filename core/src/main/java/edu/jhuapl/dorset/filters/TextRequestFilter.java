@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+import edu.jhuapl.dorset.Request;
+
+/**
+ * Request filter that only rewrites the request text
+ * <p>
+ * Text filters edit a {@link TextBuffer} instead of creating a new string.
+ * When several text filters follow each other in a pipeline, they share one
+ * buffer and the request text is set once after the last of them. Run on
+ * its own, a text filter works like any other {@link RequestFilter}.
+ */
+public interface TextRequestFilter extends RequestFilter {
+
+    /**
+     * Rewrite the text of a request
+     *
+     * @param text  the current text of the request
+     */
+    public void rewrite(TextBuffer text);
+
+    @Override
+    public default Request filter(Request request) {
+        if (request.getText() == null) {
+            return request;
+        }
+        TextBuffer text = new TextBuffer(request.getText());
+        rewrite(text);
+        if (text.isModified()) {
+            request.setText(text.toString());
+        }
+        return request;
+    }
+
+}
@@ -16,15 +16,13 @@
  */
 package edu.jhuapl.dorset.filters;
 
-import edu.jhuapl.dorset.Request;
-
 /**
  * Wakeup Request Filter
  *
  * This filter removes a wake-up word from the Request text.
  * A wake-up word is commonly used for speech to text systems that are always listening.
  */
-public class WakeupRequestFilter implements RequestFilter {
+public class WakeupRequestFilter implements TextRequestFilter {
     private String wakeupWord;
     
     public WakeupRequestFilter(String wakeupWord) {
@@ -32,11 +30,17 @@ public class WakeupRequestFilter implements RequestFilter {
     }
 
     @Override
-    public Request filter(Request request) {
+    public void rewrite(TextBuffer text) {
         if (this.wakeupWord != null) {
-            request.setText(request.getText().replace(this.wakeupWord, "").trim());
+            if (!this.wakeupWord.isEmpty()) {
+                int index = text.indexOf(this.wakeupWord, 0);
+                while (index >= 0) {
+                    text.delete(index, index + this.wakeupWord.length());
+                    index = text.indexOf(this.wakeupWord, index);
+                }
+            }
+            text.trim();
         }
-        return request;
     }
 
 }
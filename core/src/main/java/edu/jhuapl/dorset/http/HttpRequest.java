@@ -16,12 +16,17 @@
  */
 package edu.jhuapl.dorset.http;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class HttpRequest {
     private final HttpMethod method;
     private final String url;
     private String body;
     private HttpParameter[] bodyForm;
     private ContentType contentType;
+    private Integer timeout;
+    private Map<String, String> headers = new LinkedHashMap<String, String>();
 
     public HttpRequest(HttpMethod method, String url) {
         this.method = method;
@@ -125,4 +130,46 @@ public class HttpRequest {
         bodyForm = parameters.clone();
         return this;
     }
+
+    /**
+     * Set a timeout for this request
+     * <p>
+     * The timeout limits both the connect and read timeouts of the client
+     * for this request. The client timeouts are used if they are shorter.
+     * @param timeout  timeout in milliseconds
+     * @return self
+     */
+    public HttpRequest setTimeout(int timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Get the timeout for this request
+     * @return timeout in milliseconds or null if not set
+     */
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Add a header to this request
+     * <p>
+     * Overrides a default request header of the client with the same name.
+     * @param name  the name of the header
+     * @param value  the value of the header
+     * @return self
+     */
+    public HttpRequest addHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Get the headers for this request
+     * @return map of header names to values
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
 }
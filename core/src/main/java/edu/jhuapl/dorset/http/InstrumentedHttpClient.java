@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.http;
+
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+
+/**
+ * Http client that records the latency of requests
+ * <p>
+ * Wraps another client and records the time of each request in the
+ * {@value #LATENCY} histogram. Requests that fail or return an error
+ * status are counted in {@value #ERRORS}.
+ */
+public class InstrumentedHttpClient implements HttpClient {
+    public static final String LATENCY = "http.execute";
+    public static final String ERRORS = "http.errors";
+
+    private final HttpClient client;
+    private final MetricsRegistry metrics;
+
+    /**
+     * Create an instrumented http client
+     *
+     * @param client  the http client to wrap
+     * @param metrics  the registry to record metrics in
+     */
+    public InstrumentedHttpClient(HttpClient client, MetricsRegistry metrics) {
+        this.client = client;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) {
+        long startTime = System.nanoTime();
+        HttpResponse response = null;
+        try {
+            response = client.execute(request);
+        } finally {
+            metrics.histogram(LATENCY).recordSince(startTime);
+            if (response == null || response.isError()) {
+                metrics.counter(ERRORS).increment();
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public void setUserAgent(String agent) {
+        client.setUserAgent(agent);
+    }
+
+    @Override
+    public String getUserAgent() {
+        return client.getUserAgent();
+    }
+
+    @Override
+    public void setConnectTimeout(int timeout) {
+        client.setConnectTimeout(timeout);
+    }
+
+    @Override
+    public Integer getConnectTimeout() {
+        return client.getConnectTimeout();
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+        client.setReadTimeout(timeout);
+    }
+
+    @Override
+    public Integer getReadTimeout() {
+        return client.getReadTimeout();
+    }
+
+    @Override
+    public void addDefaultRequestHeader(String name, String value) {
+        client.addDefaultRequestHeader(name, value);
+    }
+}
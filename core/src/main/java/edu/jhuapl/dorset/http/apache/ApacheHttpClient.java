@@ -73,22 +73,42 @@ public class ApacheHttpClient extends AbstractHttpClient implements HttpClient {
         return httpResponse;
     }
 
-    private void prepareRequest(Request apacheRequest) {
+    private void prepareRequest(Request apacheRequest, HttpRequest request) {
         if (getUserAgent() != null) {
             apacheRequest.userAgent(getUserAgent());
         }
-        if (getConnectTimeout() != null) {
-            apacheRequest.connectTimeout(getConnectTimeout());
+        Integer connectTimeout = limitTimeout(getConnectTimeout(), request.getTimeout());
+        if (connectTimeout != null) {
+            apacheRequest.connectTimeout(connectTimeout);
         }
-        if (getReadTimeout() != null) {
-            apacheRequest.socketTimeout(getReadTimeout());
+        Integer readTimeout = limitTimeout(getReadTimeout(), request.getTimeout());
+        if (readTimeout != null) {
+            apacheRequest.socketTimeout(readTimeout);
         }
 
         if (!requestHeaders.isEmpty()) {
             for (Map.Entry<String, String> entry : requestHeaders.entrySet()) {
-                apacheRequest.addHeader(entry.getKey(), entry.getValue());
+                if (!request.getHeaders().containsKey(entry.getKey())) {
+                    apacheRequest.addHeader(entry.getKey(), entry.getValue());
+                }
             }
         }
+        for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+            apacheRequest.addHeader(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Get the shorter of the client timeout and the request timeout (0 is infinite)
+     */
+    private Integer limitTimeout(Integer clientTimeout, Integer requestTimeout) {
+        if (requestTimeout == null) {
+            return clientTimeout;
+        }
+        if (clientTimeout == null || clientTimeout == 0) {
+            return requestTimeout;
+        }
+        return Math.min(clientTimeout, requestTimeout);
     }
 
     private List<NameValuePair> buildFormBody(HttpParameter[] parameters) {
@@ -101,7 +121,7 @@ public class ApacheHttpClient extends AbstractHttpClient implements HttpClient {
 
     private Response get(HttpRequest request) throws IOException {
         Request apacheRequest = Request.Get(request.getUrl());
-        prepareRequest(apacheRequest);
+        prepareRequest(apacheRequest, request);
         return apacheRequest.execute();
     }
 
@@ -114,7 +134,7 @@ public class ApacheHttpClient extends AbstractHttpClient implements HttpClient {
         } else if (request.getBodyForm() != null) {
             apacheRequest.bodyForm(buildFormBody(request.getBodyForm()));
         }
-        prepareRequest(apacheRequest);
+        prepareRequest(apacheRequest, request);
         return apacheRequest.execute();
     }
 
@@ -127,13 +147,13 @@ public class ApacheHttpClient extends AbstractHttpClient implements HttpClient {
         } else if (request.getBodyForm() != null) {
             apacheRequest.bodyForm(buildFormBody(request.getBodyForm()));
         }
-        prepareRequest(apacheRequest);
+        prepareRequest(apacheRequest, request);
         return apacheRequest.execute();
     }
 
     private Response delete(HttpRequest request) throws IOException {
         Request apacheRequest = Request.Delete(request.getUrl());
-        prepareRequest(apacheRequest);
+        prepareRequest(apacheRequest, request);
         return apacheRequest.execute();
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that can be incremented from many threads without locking
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Add one to the counter
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Add to the counter
+     *
+     * @param value  the amount to add
+     */
+    public void add(long value) {
+        count.add(value);
+    }
+
+    /**
+     * Get the current count
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+}
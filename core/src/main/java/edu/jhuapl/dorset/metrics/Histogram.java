@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies
+ * <p>
+ * Values are counted in log-linear buckets in the style of an HDR histogram.
+ * Each power of two range is split into {@value #SUB_BUCKETS} linear buckets
+ * so the relative error of a percentile is under 2% no matter how large the
+ * value. Memory use is constant and recording a value does not lock.
+ * <p>
+ * Values are usually nanoseconds. Values above {@link #MAX_VALUE} (about 4.9
+ * hours in nanoseconds) are counted as the maximum and negative values as 0.
+ */
+public class Histogram {
+    /** Number of linear buckets in each power of two range */
+    public static final int SUB_BUCKETS = 64;
+    /** Largest value that is tracked exactly */
+    public static final long MAX_VALUE = (1L << 44) - 1;
+
+    private static final int PRECISION = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int NUM_BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Record a value
+     *
+     * @param value  the value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        if (value < min.get()) {
+            min.accumulateAndGet(value, Math::min);
+        }
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Record the time since a start time
+     *
+     * @param startTime  start time from System.nanoTime()
+     */
+    public void recordSince(long startTime) {
+        record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Get the number of recorded values
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Take a snapshot for computing statistics
+     * <p>
+     * Values recorded while the snapshot is taken may or may not be included.
+     *
+     * @return snapshot of the histogram
+     */
+    public Snapshot getSnapshot() {
+        long[] buckets = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            buckets[i] = counts.get(i);
+            total += buckets[i];
+        }
+        long minValue = total == 0 ? 0 : min.get();
+        return new Snapshot(buckets, total, sum.sum(), minValue, max.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - PRECISION;
+        int mantissa = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return mantissa << shift;
+    }
+
+    static long bucketWidth(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return 1;
+        }
+        return 1L << (index / SUB_BUCKETS - 1);
+    }
+
+    /**
+     * Statistics of a histogram at a point in time
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        Snapshot(long[] buckets, long count, long sum, long min, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * Get the value at a percentile
+         *
+         * @param percentile  percentile between 0 and 100
+         * @return the value or 0 if nothing was recorded
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * count);
+            rank = Math.max(1, Math.min(rank, count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long value = bucketLowerBound(i) + bucketWidth(i) / 2;
+                    return Math.max(min, Math.min(value, max));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Get the number of values
+         *
+         * @return count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the mean of the values
+         *
+         * @return mean or 0 if nothing was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Get the smallest value
+         *
+         * @return min
+         */
+        public long getMin() {
+            return min;
+        }
+
+        /**
+         * Get the largest value
+         *
+         * @return max
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Get the median
+         *
+         * @return 50th percentile
+         */
+        public long getP50() {
+            return getPercentile(50);
+        }
+
+        /**
+         * Get the 90th percentile
+         *
+         * @return 90th percentile
+         */
+        public long getP90() {
+            return getPercentile(90);
+        }
+
+        /**
+         * Get the 99th percentile
+         *
+         * @return 99th percentile
+         */
+        public long getP99() {
+            return getPercentile(99);
+        }
+
+        /**
+         * Get the 99.9th percentile
+         *
+         * @return 99.9th percentile
+         */
+        public long getP999() {
+            return getPercentile(99.9);
+        }
+    }
+}
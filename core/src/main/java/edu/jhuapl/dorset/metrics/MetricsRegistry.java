@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of named counters and histograms
+ * <p>
+ * Metrics are created the first time they are requested. Looking up an
+ * existing metric does not lock so metrics can be requested on every use.
+ */
+public class MetricsRegistry {
+    private final ConcurrentMap<String, Counter> counters;
+    private final ConcurrentMap<String, Histogram> histograms;
+
+    /**
+     * Create an empty registry
+     */
+    public MetricsRegistry() {
+        counters = new ConcurrentHashMap<String, Counter>();
+        histograms = new ConcurrentHashMap<String, Histogram>();
+    }
+
+    /**
+     * Get or create a counter
+     *
+     * @param name  the name of the counter
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, n -> new Counter());
+        }
+        return counter;
+    }
+
+    /**
+     * Get or create a histogram
+     *
+     * @param name  the name of the histogram
+     * @return the histogram
+     */
+    public Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, n -> new Histogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * Get the values of the counters
+     *
+     * @return map of counter name to count sorted by name
+     */
+    public SortedMap<String, Long> getCounts() {
+        SortedMap<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Get snapshots of the histograms
+     *
+     * @return map of histogram name to snapshot sorted by name
+     */
+    public SortedMap<String, Histogram.Snapshot> getSnapshots() {
+        SortedMap<String, Histogram.Snapshot> snapshots = new TreeMap<String, Histogram.Snapshot>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().getSnapshot());
+        }
+        return snapshots;
+    }
+}
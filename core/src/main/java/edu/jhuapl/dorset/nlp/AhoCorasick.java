@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over integer symbols
+ * <p>
+ * Finds every occurrence of a set of patterns in a single pass over a
+ * sequence of symbols. Symbols are non-negative. A negative symbol never
+ * matches and returns the automaton to the root state.
+ * <p>
+ * The automaton is immutable once built and can be shared across threads.
+ */
+final class AhoCorasick {
+    static final int ROOT = 0;
+
+    private static final int[] NONE = new int[0];
+
+    // sorted transition symbols and target states for each state
+    private final int[][] symbols;
+    private final int[][] targets;
+    private final int[] failures;
+    // ids of the patterns that end at each state (including through failure links)
+    private final int[][] matches;
+
+    private AhoCorasick(int[][] symbols, int[][] targets, int[] failures, int[][] matches) {
+        this.symbols = symbols;
+        this.targets = targets;
+        this.failures = failures;
+        this.matches = matches;
+    }
+
+    /**
+     * Move to the next state
+     *
+     * @param state  the current state
+     * @param symbol  the next symbol of the input
+     * @return the next state
+     */
+    int step(int state, int symbol) {
+        if (symbol < 0) {
+            return ROOT;
+        }
+        while (true) {
+            int next = transition(state, symbol);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failures[state];
+        }
+    }
+
+    /**
+     * Get the patterns that end at a state
+     *
+     * @param state  the current state
+     * @return array of pattern ids (do not modify)
+     */
+    int[] getMatches(int state) {
+        return matches[state];
+    }
+
+    /**
+     * Get the number of states
+     *
+     * @return number of states
+     */
+    int size() {
+        return failures.length;
+    }
+
+    private int transition(int state, int symbol) {
+        int index = Arrays.binarySearch(symbols[state], symbol);
+        return index >= 0 ? targets[state][index] : -1;
+    }
+
+    /**
+     * Builds the automaton from patterns
+     */
+    static class Builder {
+        private final List<Map<Integer, Integer>> transitions = new ArrayList<Map<Integer, Integer>>();
+        private final List<List<Integer>> outputs = new ArrayList<List<Integer>>();
+        private int numPatterns;
+
+        Builder() {
+            addState();
+        }
+
+        /**
+         * Add a pattern
+         *
+         * @param pattern  non-empty sequence of non-negative symbols
+         * @return the id of the pattern (ids are assigned in order from 0)
+         */
+        int add(int[] pattern) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Pattern cannot be empty");
+            }
+            int state = ROOT;
+            for (int symbol : pattern) {
+                if (symbol < 0) {
+                    throw new IllegalArgumentException("Symbols cannot be negative");
+                }
+                Integer next = transitions.get(state).get(symbol);
+                if (next == null) {
+                    next = addState();
+                    transitions.get(state).put(symbol, next);
+                }
+                state = next;
+            }
+            outputs.get(state).add(numPatterns);
+            return numPatterns++;
+        }
+
+        AhoCorasick build() {
+            int size = transitions.size();
+            int[][] symbols = new int[size][];
+            int[][] targets = new int[size][];
+            for (int state = 0; state < size; state++) {
+                Map<Integer, Integer> map = transitions.get(state);
+                symbols[state] = new int[map.size()];
+                targets[state] = new int[map.size()];
+                int index = 0;
+                for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+                    symbols[state][index] = entry.getKey();
+                    targets[state][index] = entry.getValue();
+                    index++;
+                }
+            }
+
+            // breadth first so failure states are complete before their children
+            int[] failures = new int[size];
+            int[][] matches = new int[size][];
+            matches[ROOT] = toArray(outputs.get(ROOT), NONE);
+            AhoCorasick partial = new AhoCorasick(symbols, targets, failures, matches);
+            Deque<Integer> queue = new ArrayDeque<Integer>();
+            for (int child : targets[ROOT]) {
+                failures[child] = ROOT;
+                matches[child] = toArray(outputs.get(child), NONE);
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int i = 0; i < symbols[state].length; i++) {
+                    int child = targets[state][i];
+                    failures[child] = partial.step(failures[state], symbols[state][i]);
+                    matches[child] = toArray(outputs.get(child), matches[failures[child]]);
+                    queue.add(child);
+                }
+            }
+            return partial;
+        }
+
+        private int addState() {
+            transitions.add(new TreeMap<Integer, Integer>());
+            outputs.add(new ArrayList<Integer>());
+            return transitions.size() - 1;
+        }
+
+        private static int[] toArray(List<Integer> own, int[] inherited) {
+            if (own.isEmpty()) {
+                return inherited;
+            }
+            int[] array = Arrays.copyOf(inherited, own.size() + inherited.length);
+            for (int i = 0; i < own.size(); i++) {
+                array[inherited.length + i] = own.get(i);
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Text that has been tokenized and normalized once
+ * <p>
+ * Routers, tree nodes and agents that look at the words of a request share
+ * this view rather than lowercasing and tokenizing the text themselves.
+ * Tokens are produced by {@link RuleBasedTokenizer} with punctuation kept.
+ * Each token has a span (start and end offsets) in the original text and a
+ * normalized (lowercase) form.
+ * <p>
+ * The ids of the normalized tokens in a {@link Vocabulary} are looked up
+ * once and cached for the last few vocabularies used. An AnalyzedText can be
+ * shared across threads.
+ */
+public final class AnalyzedText {
+    private static final SpanTokenizer TOKENIZER = new RuleBasedTokenizer();
+    private static final int MAX_CACHED_VOCABULARIES = 4;
+
+    private final String text;
+    private final String lowerCaseText;
+    private final String[] tokens;
+    private final String[] normalizedTokens;
+    private final TokenSpans spans;
+    private final List<String> tokenList;
+    private final List<String> normalizedTokenList;
+    private final List<String> words;
+    private volatile TokenIds[] tokenIds = new TokenIds[0];
+
+    /**
+     * Analyze text
+     *
+     * @param text  the text to analyze
+     */
+    public AnalyzedText(String text) {
+        this.text = text;
+        lowerCaseText = text.toLowerCase();
+        spans = new TokenSpans();
+        TOKENIZER.tokenize(text, spans);
+        tokens = spans.toStrings(text);
+        normalizedTokens = new String[tokens.length];
+        String[] wordArray = new String[tokens.length];
+        int numWords = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            normalizedTokens[i] = tokens[i].toLowerCase();
+            if (hasLetterOrDigit(tokens[i])) {
+                wordArray[numWords++] = tokens[i];
+            }
+        }
+        tokenList = Collections.unmodifiableList(Arrays.asList(tokens));
+        normalizedTokenList = Collections.unmodifiableList(Arrays.asList(normalizedTokens));
+        words = Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(wordArray, numWords)));
+    }
+
+    /**
+     * Get the original text
+     *
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the lowercased text
+     *
+     * @return the text in lowercase
+     */
+    public String getLowerCaseText() {
+        return lowerCaseText;
+    }
+
+    /**
+     * Get the number of tokens
+     *
+     * @return the number of tokens
+     */
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Get the tokens as they appear in the text
+     *
+     * @return unmodifiable list of tokens
+     */
+    public List<String> getTokens() {
+        return tokenList;
+    }
+
+    /**
+     * Get the lowercased tokens
+     *
+     * @return unmodifiable list of normalized tokens
+     */
+    public List<String> getNormalizedTokens() {
+        return normalizedTokenList;
+    }
+
+    /**
+     * Get a lowercased token
+     *
+     * @param index  the index of the token
+     * @return the normalized token
+     */
+    public String getNormalizedToken(int index) {
+        return normalizedTokens[index];
+    }
+
+    /**
+     * Get the tokens that are not punctuation
+     *
+     * @return unmodifiable list of tokens as they appear in the text
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * Check whether a token is a word and not punctuation
+     *
+     * @param index  the index of the token
+     * @return true if the token has a letter or digit
+     */
+    public boolean isWord(int index) {
+        return hasLetterOrDigit(tokens[index]);
+    }
+
+    /**
+     * Get the offset where a token starts in the text
+     *
+     * @param index  the index of the token
+     * @return the offset of the first character of the token
+     */
+    public int getTokenStart(int index) {
+        return spans.getStart(index);
+    }
+
+    /**
+     * Get the offset where a token ends in the text
+     *
+     * @param index  the index of the token
+     * @return the offset after the last character of the token
+     */
+    public int getTokenEnd(int index) {
+        return spans.getEnd(index);
+    }
+
+    /**
+     * Does the text contain a token?
+     *
+     * @param normalizedToken  a lowercase token
+     * @return true if one of the normalized tokens equals it
+     */
+    public boolean containsToken(String normalizedToken) {
+        for (String token : normalizedTokens) {
+            if (token.equals(normalizedToken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the ids of the normalized tokens
+     * <p>
+     * The ids are cached until the vocabulary grows. Routers with their own
+     * vocabularies each get a cached entry.
+     *
+     * @param vocabulary  the vocabulary to look the tokens up in
+     * @return array of ids with {@link Vocabulary#UNKNOWN} for tokens that
+     *         are not in the vocabulary (shared, do not modify)
+     */
+    public int[] getTokenIds(Vocabulary vocabulary) {
+        TokenIds[] cached = tokenIds;
+        int size = vocabulary.size();
+        for (TokenIds entry : cached) {
+            if (entry.vocabulary == vocabulary && entry.size == size) {
+                return entry.ids;
+            }
+        }
+        int[] ids = new int[normalizedTokens.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = vocabulary.getId(normalizedTokens[i]);
+        }
+        // most recent first, replacing any stale entry for the vocabulary
+        TokenIds[] updated = new TokenIds[Math.min(cached.length + 1, MAX_CACHED_VOCABULARIES)];
+        updated[0] = new TokenIds(vocabulary, size, ids);
+        int count = 1;
+        for (int i = 0; i < cached.length && count < updated.length; i++) {
+            if (cached[i].vocabulary != vocabulary) {
+                updated[count++] = cached[i];
+            }
+        }
+        tokenIds = count == updated.length ? updated : Arrays.copyOf(updated, count);
+        return ids;
+    }
+
+    private static boolean hasLetterOrDigit(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isLetterOrDigit(token.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class TokenIds {
+        private final Vocabulary vocabulary;
+        private final int size;
+        private final int[] ids;
+
+        TokenIds(Vocabulary vocabulary, int size, int[] ids) {
+            this.vocabulary = vocabulary;
+            this.size = size;
+            this.ids = ids;
+        }
+    }
+}
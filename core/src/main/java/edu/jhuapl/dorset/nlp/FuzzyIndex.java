@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds words within a small edit distance of a token
+ * <p>
+ * The index stores every variant of its words with up to the maximum
+ * number of characters deleted. A lookup generates the deletion variants of
+ * the token and checks the words that share a variant, so the cost depends
+ * on the length of the token and not on the number of words. Candidates are
+ * verified with the optimal string alignment distance which counts
+ * insertions, deletions, substitutions and transpositions of adjacent
+ * characters as one edit each.
+ * <p>
+ * Short words are prone to false matches so the distance allowed for a word
+ * is also limited by its length: words with fewer than 4 characters only
+ * match exactly and words with fewer than 7 characters allow one edit.
+ * An index is immutable and can be shared across threads.
+ */
+public final class FuzzyIndex {
+    /** Largest supported edit distance */
+    public static final int MAX_DISTANCE = 2;
+
+    // tokens longer than this are not looked up
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    private final String[] words;
+    private final int[] wordIds;
+    private final int[] wordDistances;
+    private final Map<String, int[]> variants;
+    private final int maxDistance;
+
+    private FuzzyIndex(Builder builder) {
+        int size = builder.words.size();
+        words = new String[size];
+        wordIds = new int[size];
+        wordDistances = new int[size];
+        Map<String, List<Integer>> lists = new HashMap<String, List<Integer>>();
+        int max = 0;
+        int index = 0;
+        for (Map.Entry<String, int[]> entry : builder.words.entrySet()) {
+            words[index] = entry.getKey();
+            wordIds[index] = entry.getValue()[0];
+            wordDistances[index] = entry.getValue()[1];
+            max = Math.max(max, wordDistances[index]);
+            for (String variant : deletions(words[index], wordDistances[index])) {
+                List<Integer> list = lists.get(variant);
+                if (list == null) {
+                    list = new ArrayList<Integer>(1);
+                    lists.put(variant, list);
+                }
+                list.add(index);
+            }
+            index++;
+        }
+        variants = new HashMap<String, int[]>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] indexes = new int[list.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = list.get(i);
+            }
+            variants.put(entry.getKey(), indexes);
+        }
+        maxDistance = max;
+    }
+
+    /**
+     * Find the closest word to a token
+     *
+     * @param token  a lowercase token
+     * @return the id of the closest word within its allowed distance or
+     *         {@link Vocabulary#UNKNOWN} if there is none (ties go to the
+     *         word added first)
+     */
+    public int find(String token) {
+        if (maxDistance == 0 || token.length() > MAX_TOKEN_LENGTH) {
+            return Vocabulary.UNKNOWN;
+        }
+        int best = -1;
+        int bestDistance = maxDistance + 1;
+        for (String variant : deletions(token, maxDistance)) {
+            int[] candidates = variants.get(variant);
+            if (candidates == null) {
+                continue;
+            }
+            for (int candidate : candidates) {
+                int limit = wordDistances[candidate];
+                int dist = distance(token, words[candidate], limit);
+                if (dist <= limit && (dist < bestDistance
+                                || (dist == bestDistance && candidate < best))) {
+                    best = candidate;
+                    bestDistance = dist;
+                }
+            }
+        }
+        return best < 0 ? Vocabulary.UNKNOWN : wordIds[best];
+    }
+
+    /**
+     * Get the number of words in the index
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Get the edit distance between two strings
+     * <p>
+     * This is the optimal string alignment distance. The computation stops
+     * early once the distance is known to exceed the limit.
+     *
+     * @param first  the first string
+     * @param second  the second string
+     * @param limit  the largest distance of interest
+     * @return the distance or limit + 1 if it is larger than the limit
+     */
+    public static int distance(CharSequence first, CharSequence second, int limit) {
+        int len1 = first.length();
+        int len2 = second.length();
+        if (Math.abs(len1 - len2) > limit) {
+            return limit + 1;
+        }
+        int[] previous2 = new int[len2 + 1];
+        int[] previous = new int[len2 + 1];
+        int[] current = new int[len2 + 1];
+        for (int j = 0; j <= len2; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= len1; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ch1 = first.charAt(i - 1);
+            for (int j = 1; j <= len2; j++) {
+                char ch2 = second.charAt(j - 1);
+                int cost = ch1 == ch2 ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+                                previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ch1 == second.charAt(j - 2)
+                                && first.charAt(i - 2) == ch2) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] temp = previous2;
+            previous2 = previous;
+            previous = current;
+            current = temp;
+        }
+        return Math.min(previous[len2], limit + 1);
+    }
+
+    /**
+     * Get the largest distance allowed for a word of a given length
+     */
+    static int allowedDistance(int length, int maxDistance) {
+        if (length < 4) {
+            return 0;
+        }
+        return Math.min(maxDistance, length < 7 ? 1 : 2);
+    }
+
+    /**
+     * Get the word and all its variants with up to maxDeletes characters removed
+     */
+    static Set<String> deletions(String word, int maxDeletes) {
+        Set<String> results = new LinkedHashSet<String>();
+        results.add(word);
+        List<String> level = Collections.singletonList(word);
+        for (int depth = 0; depth < maxDeletes; depth++) {
+            List<String> next = new ArrayList<String>();
+            for (String variant : level) {
+                for (int j = 0; j < variant.length(); j++) {
+                    // deleting any character of a run gives the same variant
+                    if (j > 0 && variant.charAt(j) == variant.charAt(j - 1)) {
+                        continue;
+                    }
+                    String deleted = variant.substring(0, j) + variant.substring(j + 1);
+                    if (results.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            level = next;
+        }
+        return results;
+    }
+
+    /**
+     * Builds a fuzzy index
+     */
+    public static class Builder {
+        private final Map<String, int[]> words = new LinkedHashMap<String, int[]>();
+
+        /**
+         * Add a word
+         * <p>
+         * If the word is added more than once, the first id and the largest
+         * distance are used.
+         *
+         * @param word  the lowercase word
+         * @param id  the id returned when a token matches the word
+         * @param maxDistance  the largest number of edits allowed (0 to
+         *        {@link FuzzyIndex#MAX_DISTANCE})
+         * @return this
+         */
+        public Builder add(String word, int id, int maxDistance) {
+            if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+                throw new IllegalArgumentException("Edit distance must be between 0 and "
+                                + MAX_DISTANCE + ": " + maxDistance);
+            }
+            int allowed = allowedDistance(word.length(), maxDistance);
+            int[] existing = words.get(word);
+            if (existing == null) {
+                words.put(word, new int[]{id, allowed});
+            } else {
+                existing[1] = Math.max(existing[1], allowed);
+            }
+            return this;
+        }
+
+        /**
+         * Build the index
+         *
+         * @return a new fuzzy index
+         */
+        public FuzzyIndex build() {
+            return new FuzzyIndex(this);
+        }
+    }
+}
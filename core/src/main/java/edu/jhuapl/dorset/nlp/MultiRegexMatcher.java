@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Matches text against many regular expressions
+ * <p>
+ * Literal strings that every match must contain are extracted from each
+ * regular expression. A single scan of the text with an Aho-Corasick
+ * automaton over those literals finds the candidate expressions. Only the
+ * candidates are run against the text. Expressions without a usable literal
+ * are always candidates.
+ * <p>
+ * Literals are compared case insensitively so the prefilter is safe for
+ * case insensitive patterns. Results are in the order the values were added.
+ * A matcher is immutable and can be shared across threads.
+ *
+ * @param <T>  the type of the values associated with the expressions
+ */
+public final class MultiRegexMatcher<T> {
+    private final Pattern[] patterns;
+    private final int[] patternValues;
+    private final int[] patternLiteralChars;
+    private final List<T> values;
+    private final AhoCorasick automaton;
+    // expressions to check for each literal
+    private final int[][] literalPatterns;
+    private final BitSet unfiltered;
+
+    private MultiRegexMatcher(Builder<T> builder) {
+        patterns = builder.patterns.toArray(new Pattern[builder.patterns.size()]);
+        patternValues = new int[patterns.length];
+        patternLiteralChars = new int[patterns.length];
+        for (int i = 0; i < patternValues.length; i++) {
+            patternValues[i] = builder.patternValues.get(i);
+            patternLiteralChars[i] = builder.patternLiteralChars.get(i);
+        }
+        values = Collections.unmodifiableList(new ArrayList<T>(builder.values.keySet()));
+        automaton = builder.automaton.build();
+        literalPatterns = new int[builder.literalPatterns.size()][];
+        for (int i = 0; i < literalPatterns.length; i++) {
+            List<Integer> list = builder.literalPatterns.get(i);
+            literalPatterns[i] = new int[list.size()];
+            for (int j = 0; j < list.size(); j++) {
+                literalPatterns[i][j] = list.get(j);
+            }
+        }
+        unfiltered = (BitSet) builder.unfiltered.clone();
+    }
+
+    /**
+     * Find the values of the expressions that match the entire text
+     *
+     * @param text  the text to match
+     * @return the distinct values of the matching expressions in the order
+     *         the values were first added to the builder
+     */
+    public List<T> match(CharSequence text) {
+        BitSet candidates = findCandidates(text);
+        BitSet matched = new BitSet(values.size());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (!matched.get(patternValues[i]) && patterns[i].matcher(text).matches()) {
+                matched.set(patternValues[i]);
+            }
+        }
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> results = new ArrayList<T>(matched.cardinality());
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            results.add(values.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * Score the values by how specific their matching expressions are
+     * <p>
+     * The specificity of an expression is the fraction of the text fixed
+     * by its literal characters. An expression like "what time is it"
+     * scores higher than ".*time.*". A value gets the highest score of
+     * its matching expressions.
+     *
+     * @param text  the text to match
+     * @return array of scores between 0 and 1 in the order of
+     *         {@link #getValues()} (0 if no expression for the value matched)
+     */
+    public double[] score(CharSequence text) {
+        double[] scores = new double[values.size()];
+        BitSet candidates = findCandidates(text);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            double specificity = Math.min(1.0,
+                            (1.0 + patternLiteralChars[i]) / (1.0 + text.length()));
+            if (specificity > scores[patternValues[i]] && patterns[i].matcher(text).matches()) {
+                scores[patternValues[i]] = specificity;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Get all the values
+     *
+     * @return unmodifiable list of the values in the order they were added
+     */
+    public List<T> getValues() {
+        return values;
+    }
+
+    private BitSet findCandidates(CharSequence text) {
+        BitSet candidates = (BitSet) unfiltered.clone();
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = automaton.step(state, fold(text.charAt(i)));
+            for (int literal : automaton.getMatches(state)) {
+                for (int pattern : literalPatterns[literal]) {
+                    candidates.set(pattern);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static int fold(char ch) {
+        return Character.toLowerCase(ch);
+    }
+
+    /**
+     * Builds a multiple regular expression matcher
+     *
+     * @param <T>  the type of the values associated with the expressions
+     */
+    public static class Builder<T> {
+        private final int flags;
+        private final List<Pattern> patterns = new ArrayList<Pattern>();
+        private final List<Integer> patternValues = new ArrayList<Integer>();
+        private final List<Integer> patternLiteralChars = new ArrayList<Integer>();
+        private final Map<T, Integer> values = new LinkedHashMap<T, Integer>();
+        private final AhoCorasick.Builder automaton = new AhoCorasick.Builder();
+        private final Map<String, Integer> literals = new HashMap<String, Integer>();
+        private final List<List<Integer>> literalPatterns = new ArrayList<List<Integer>>();
+        private final BitSet unfiltered = new BitSet();
+
+        /**
+         * Create a builder for case sensitive expressions
+         */
+        public Builder() {
+            this(0);
+        }
+
+        /**
+         * Create a builder
+         *
+         * @param flags  flags passed to {@link Pattern#compile(String, int)}
+         */
+        public Builder(int flags) {
+            this.flags = flags;
+        }
+
+        /**
+         * Add a regular expression
+         *
+         * @param regex  the regular expression
+         * @param value  the value returned when the expression matches
+         * @return this
+         * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+         */
+        public Builder<T> add(String regex, T value) {
+            Pattern pattern = Pattern.compile(regex, flags);
+            int index = patterns.size();
+            patterns.add(pattern);
+            Integer valueIndex = values.get(value);
+            if (valueIndex == null) {
+                valueIndex = values.size();
+                values.put(value, valueIndex);
+            }
+            patternValues.add(valueIndex);
+            patternLiteralChars.add(RegexLiterals.countLiteralChars(regex));
+
+            List<String> required = (flags & Pattern.COMMENTS) == 0
+                            ? RegexLiterals.extract(regex) : null;
+            if (required == null) {
+                unfiltered.set(index);
+                return this;
+            }
+            for (String literal : required) {
+                addLiteral(literal).add(index);
+            }
+            return this;
+        }
+
+        /**
+         * Build the matcher
+         *
+         * @return a new matcher
+         */
+        public MultiRegexMatcher<T> build() {
+            return new MultiRegexMatcher<T>(this);
+        }
+
+        private List<Integer> addLiteral(String literal) {
+            int[] symbols = new int[literal.length()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = fold(literal.charAt(i));
+            }
+            String key = new String(symbols, 0, symbols.length);
+            Integer id = literals.get(key);
+            if (id == null) {
+                id = automaton.add(symbols);
+                literals.put(key, id);
+                literalPatterns.add(new ArrayList<Integer>());
+            }
+            return literalPatterns.get(id);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds phrases of one or more words in tokenized text
+ * <p>
+ * Phrases are tokenized with {@link RuleBasedTokenizer} and lowercased, so
+ * "Stock Price" matches the tokens "stock" and "price" in that order. All
+ * phrases are compiled into an Aho-Corasick automaton. Matching takes one
+ * pass over the tokens regardless of how many phrases there are.
+ * <p>
+ * Each phrase is associated with one or more values. Tokens are converted
+ * to ids with a {@link Vocabulary}, which can be shared with other matchers
+ * so the ids of a text are looked up only once. A phrase matcher is
+ * immutable and can be shared across threads.
+ * <p>
+ * Phrases can be added with a maximum edit distance to tolerate misspelled
+ * words. A token that is not a word of any phrase is then looked up in a
+ * {@link FuzzyIndex} and replaced by the closest phrase word. A corrected
+ * token only counts for the phrases that were added with a large enough
+ * edit distance for that word, so exact phrases never match misspellings.
+ * Tokens that match exactly never pay for the fuzzy lookup.
+ *
+ * @param <T>  the type of the values associated with the phrases
+ */
+public final class PhraseMatcher<T> {
+    private final Vocabulary vocabulary;
+    private final AhoCorasick automaton;
+    private final int[] patternValues;
+    private final int[] patternLengths;
+    // words and allowed edits of each phrase added with an edit distance
+    private final String[][] patternWords;
+    private final int[][] patternDistances;
+    private final List<T> values;
+    private final BitSet symbols;
+    private final FuzzyIndex fuzzyIndex;
+
+    private PhraseMatcher(Builder<T> builder) {
+        vocabulary = builder.vocabulary;
+        automaton = builder.automaton.build();
+        patternValues = new int[builder.patternValues.size()];
+        patternLengths = new int[patternValues.length];
+        patternWords = builder.patternWords.toArray(new String[patternValues.length][]);
+        patternDistances = builder.patternDistances.toArray(new int[patternValues.length][]);
+        for (int i = 0; i < patternValues.length; i++) {
+            patternValues[i] = builder.patternValues.get(i);
+            patternLengths[i] = builder.patternLengths.get(i);
+        }
+        values = Collections.unmodifiableList(new ArrayList<T>(builder.values.keySet()));
+        symbols = (BitSet) builder.symbols.clone();
+        fuzzyIndex = builder.fuzzyIndex == null ? null : builder.fuzzyIndex.build();
+    }
+
+    /**
+     * Find the values of the phrases in the text
+     *
+     * @param text  the analyzed text
+     * @return the distinct values of all matched phrases in the order the
+     *         values were first added to the builder
+     */
+    public List<T> match(AnalyzedText text) {
+        List<String> tokens = text.getNormalizedTokens();
+        int[] tokenIds = text.getTokenIds(vocabulary);
+        return match(correct(tokenIds, tokens), tokenIds, tokens);
+    }
+
+    /**
+     * Find the values of the phrases in a list of tokens
+     *
+     * @param normalizedTokens  lowercase tokens
+     * @return the distinct values of all matched phrases in the order the
+     *         values were first added to the builder
+     */
+    public List<T> match(List<String> normalizedTokens) {
+        int[] tokenIds = new int[normalizedTokens.size()];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = vocabulary.getId(normalizedTokens.get(i));
+        }
+        return match(correct(tokenIds, normalizedTokens), tokenIds, normalizedTokens);
+    }
+
+    private List<T> match(int[] tokenIds, int[] originalIds, List<String> tokens) {
+        BitSet matched = new BitSet(values.size());
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < tokenIds.length; i++) {
+            state = automaton.step(state, tokenIds[i]);
+            for (int pattern : automaton.getMatches(state)) {
+                if (tokenIds == originalIds || isAllowed(pattern, i, tokenIds, originalIds, tokens)) {
+                    matched.set(patternValues[pattern]);
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> results = new ArrayList<T>(matched.cardinality());
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            results.add(values.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * Score the values by the phrases found in the text
+     * <p>
+     * The score of a value is the total number of tokens in all of its
+     * phrase matches, so longer phrases and repeated matches score higher.
+     *
+     * @param text  the analyzed text
+     * @return array of scores in the order of {@link #getValues()} (0 if
+     *         none of the value's phrases matched)
+     */
+    public int[] score(AnalyzedText text) {
+        int[] scores = new int[values.size()];
+        List<String> tokens = text.getNormalizedTokens();
+        int[] originalIds = text.getTokenIds(vocabulary);
+        int[] tokenIds = correct(originalIds, tokens);
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < tokenIds.length; i++) {
+            state = automaton.step(state, tokenIds[i]);
+            for (int pattern : automaton.getMatches(state)) {
+                if (tokenIds == originalIds || isAllowed(pattern, i, tokenIds, originalIds, tokens)) {
+                    scores[patternValues[pattern]] += patternLengths[pattern];
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Replace unknown tokens by the closest phrase word
+     *
+     * @return the corrected ids or the same array if nothing was corrected
+     */
+    private int[] correct(int[] tokenIds, List<String> tokens) {
+        if (fuzzyIndex == null) {
+            return tokenIds;
+        }
+        int[] corrected = tokenIds;
+        for (int i = 0; i < tokenIds.length; i++) {
+            if (tokenIds[i] >= 0 && symbols.get(tokenIds[i])) {
+                continue;
+            }
+            int id = fuzzyIndex.find(tokens.get(i));
+            if (id != Vocabulary.UNKNOWN) {
+                if (corrected == tokenIds) {
+                    corrected = tokenIds.clone();
+                }
+                corrected[i] = id;
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * Check that the corrected tokens of a match are within the edit
+     * distance of the phrase that matched
+     */
+    private boolean isAllowed(int pattern, int end, int[] tokenIds, int[] originalIds,
+                    List<String> tokens) {
+        int start = end - patternLengths[pattern] + 1;
+        for (int i = start; i <= end; i++) {
+            if (tokenIds[i] == originalIds[i]) {
+                continue;
+            }
+            if (patternDistances[pattern] == null) {
+                // corrected to a word of another phrase that allows edits
+                return false;
+            }
+            int limit = patternDistances[pattern][i - start];
+            if (FuzzyIndex.distance(tokens.get(i), patternWords[pattern][i - start], limit) > limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get all the values
+     *
+     * @return unmodifiable list of the values in the order they were added
+     */
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * Builds a phrase matcher
+     *
+     * @param <T>  the type of the values associated with the phrases
+     */
+    public static class Builder<T> {
+        private final Tokenizer tokenizer = new RuleBasedTokenizer();
+        private final Vocabulary vocabulary;
+        private final AhoCorasick.Builder automaton = new AhoCorasick.Builder();
+        private final List<Integer> patternValues = new ArrayList<Integer>();
+        private final List<Integer> patternLengths = new ArrayList<Integer>();
+        private final List<String[]> patternWords = new ArrayList<String[]>();
+        private final List<int[]> patternDistances = new ArrayList<int[]>();
+        private final Map<T, Integer> values = new LinkedHashMap<T, Integer>();
+        private final BitSet symbols = new BitSet();
+        private FuzzyIndex.Builder fuzzyIndex;
+
+        /**
+         * Create a builder with its own vocabulary
+         */
+        public Builder() {
+            this(new Vocabulary());
+        }
+
+        /**
+         * Create a builder
+         *
+         * @param vocabulary  vocabulary for the phrase tokens
+         */
+        public Builder(Vocabulary vocabulary) {
+            this.vocabulary = vocabulary;
+        }
+
+        /**
+         * Add a phrase
+         * <p>
+         * A phrase can be added more than once with different values.
+         * Phrases without any tokens are ignored.
+         *
+         * @param phrase  the phrase to match
+         * @param value  the value returned when the phrase matches
+         * @return this
+         */
+        public Builder<T> add(String phrase, T value) {
+            return add(phrase, value, 0);
+        }
+
+        /**
+         * Add a phrase that tolerates misspelled words
+         * <p>
+         * Each word of the phrase matches tokens within the edit distance.
+         * The distance is limited further for short words as described in
+         * {@link FuzzyIndex}.
+         *
+         * @param phrase  the phrase to match
+         * @param value  the value returned when the phrase matches
+         * @param maxEditDistance  the maximum edit distance for each word
+         *        (0 to {@link FuzzyIndex#MAX_DISTANCE})
+         * @return this
+         */
+        public Builder<T> add(String phrase, T value, int maxEditDistance) {
+            if (maxEditDistance < 0 || maxEditDistance > FuzzyIndex.MAX_DISTANCE) {
+                throw new IllegalArgumentException("Edit distance must be between 0 and "
+                                + FuzzyIndex.MAX_DISTANCE + ": " + maxEditDistance);
+            }
+            if (maxEditDistance > 0 && fuzzyIndex == null) {
+                fuzzyIndex = new FuzzyIndex.Builder();
+            }
+            String[] tokens = tokenizer.tokenize(phrase.toLowerCase());
+            if (tokens.length == 0) {
+                return this;
+            }
+            int[] pattern = new int[tokens.length];
+            int[] distances = maxEditDistance > 0 ? new int[tokens.length] : null;
+            for (int i = 0; i < tokens.length; i++) {
+                pattern[i] = vocabulary.intern(tokens[i]);
+                symbols.set(pattern[i]);
+                if (maxEditDistance > 0) {
+                    fuzzyIndex.add(tokens[i], pattern[i], maxEditDistance);
+                    distances[i] = FuzzyIndex.allowedDistance(tokens[i].length(), maxEditDistance);
+                }
+            }
+            Integer valueIndex = values.get(value);
+            if (valueIndex == null) {
+                valueIndex = values.size();
+                values.put(value, valueIndex);
+            }
+            automaton.add(pattern);
+            patternValues.add(valueIndex);
+            patternLengths.add(pattern.length);
+            patternWords.add(distances == null ? null : tokens);
+            patternDistances.add(distances);
+            return this;
+        }
+
+        /**
+         * Build the phrase matcher
+         *
+         * @return a new phrase matcher
+         */
+        public PhraseMatcher<T> build() {
+            return new PhraseMatcher<T>(this);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts literal strings that any match of a regular expression contains
+ * <p>
+ * The analysis is conservative. Groups, character classes and escapes that
+ * are not a single quoted character end a literal. When a regular expression has top level
+ * alternatives, each alternative contributes its own literal. If a literal
+ * cannot be found for every alternative, nothing is returned.
+ */
+final class RegexLiterals {
+    private static final int INVALID = -1;
+    private static final int OPTIONAL = 0;
+    private static final int ONCE = 1;
+    private static final int REPEATED = 2;
+
+    private final String regex;
+    private int pos;
+    // set when a quantifier follows a quoted literal
+    private boolean quotedPrefix;
+    // number of literal characters in the last parsed alternative
+    private int literalChars;
+
+    private RegexLiterals(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Get the literals required by a regular expression
+     * <p>
+     * Every string that the expression matches contains at least one of the
+     * returned literals. The regular expression must be valid.
+     *
+     * @param regex  the regular expression
+     * @return the longest literal of each top level alternative or null if
+     *         there is an alternative without a literal
+     */
+    static List<String> extract(String regex) {
+        try {
+            return new RegexLiterals(regex).extract();
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private List<String> extract() {
+        if (hasCommentsFlag()) {
+            // white space and comments in the expression are not literal
+            return null;
+        }
+        List<String> literals = new ArrayList<String>();
+        while (true) {
+            String literal = parseAlternative();
+            if (literal == null || literal.isEmpty()) {
+                return null;
+            }
+            literals.add(literal);
+            if (pos >= regex.length()) {
+                return literals;
+            }
+            // skip the |
+            pos++;
+        }
+    }
+
+    /**
+     * Count the literal characters of a regular expression
+     * <p>
+     * This is a measure of how specific the expression is.
+     *
+     * @param regex  the regular expression
+     * @return the smallest number of literal characters in a top level
+     *         alternative
+     */
+    static int countLiteralChars(String regex) {
+        try {
+            RegexLiterals parser = new RegexLiterals(regex);
+            if (parser.hasCommentsFlag()) {
+                return 0;
+            }
+            int min = Integer.MAX_VALUE;
+            while (true) {
+                if (parser.parseAlternative() == null) {
+                    return 0;
+                }
+                min = Math.min(min, parser.literalChars);
+                if (parser.pos >= regex.length()) {
+                    return min;
+                }
+                parser.pos++;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    private String parseAlternative() {
+        String longest = "";
+        StringBuilder run = new StringBuilder();
+        literalChars = 0;
+        while (true) {
+            skipEmptyQuotes();
+            if (pos >= regex.length() || regex.charAt(pos) == '|') {
+                break;
+            }
+            String literal = parseAtom();
+            // a quantifier after an empty quote applies to the atom before it
+            skipEmptyQuotes();
+            int quantifier = parseQuantifier();
+            if (quantifier == INVALID) {
+                return null;
+            }
+            if (literal != null && quotedPrefix) {
+                // the quantifier only applied to the last quoted character
+                run.append(literal);
+                literalChars += literal.length();
+                quantifier = quantifier == ONCE ? ONCE : REPEATED;
+            } else if (literal == null || quantifier == OPTIONAL) {
+                longest = longer(longest, run);
+                run.setLength(0);
+                continue;
+            } else {
+                run.append(literal);
+                literalChars += literal.length();
+            }
+            if (quantifier == REPEATED) {
+                longest = longer(longest, run);
+                run.setLength(0);
+            }
+        }
+        return longer(longest, run);
+    }
+
+    /**
+     * Parse one atom
+     *
+     * @return the literal text of the atom or null if it is not a literal
+     */
+    private String parseAtom() {
+        quotedPrefix = false;
+        char ch = regex.charAt(pos++);
+        switch (ch) {
+            case '\\':
+                return parseEscape();
+            case '(':
+                skipGroup();
+                return null;
+            case '[':
+                skipClass();
+                return null;
+            case '.':
+            case '^':
+            case '$':
+                return null;
+            default:
+                return String.valueOf(ch);
+        }
+    }
+
+    private String parseEscape() {
+        char ch = regex.charAt(pos++);
+        if (ch == 'Q') {
+            int end = regex.indexOf("\\E", pos);
+            String quoted = regex.substring(pos, end < 0 ? regex.length() : end);
+            pos = end < 0 ? regex.length() : end + 2;
+            skipEmptyQuotes();
+            if (isQuantifierNext()) {
+                // the quantifier applies to the last quoted character
+                quotedPrefix = true;
+                return quoted.length() > 1 ? quoted.substring(0, quoted.length() - 1) : null;
+            }
+            return quoted;
+        }
+        if (!Character.isLetterOrDigit(ch)) {
+            return String.valueOf(ch);
+        }
+        // character classes, anchors, back references and character codes
+        skipEscapeArgument(ch);
+        return null;
+    }
+
+    /**
+     * Skip the rest of an escape that starts with a letter or digit
+     * <p>
+     * Hex, unicode, octal and control character codes, named back
+     * references and properties are not literal text.
+     *
+     * @param ch  the character after the backslash
+     */
+    private void skipEscapeArgument(char ch) {
+        switch (ch) {
+            case 'x':
+                if (!skipBraces()) {
+                    skipChars(2);
+                }
+                break;
+            case 'u':
+                skipChars(4);
+                break;
+            case '0':
+                // \0n, \0nn or \0mnn where m is at most 3
+                int max = pos < regex.length() && regex.charAt(pos) <= '3' ? 3 : 2;
+                for (int i = 0; i < max && pos < regex.length() && isOctal(regex.charAt(pos)); i++) {
+                    pos++;
+                }
+                break;
+            case 'c':
+                skipChars(1);
+                break;
+            case 'k':
+                int end = regex.indexOf('>', pos);
+                pos = end < 0 ? regex.length() : end + 1;
+                break;
+            case 'p':
+            case 'P':
+                if (!skipBraces()) {
+                    // one letter property like \pL
+                    skipChars(1);
+                }
+                break;
+            case 'N':
+                skipBraces();
+                break;
+            default:
+                if (Character.isDigit(ch)) {
+                    // the digits of a back reference
+                    while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                        pos++;
+                    }
+                }
+                break;
+        }
+    }
+
+    private boolean skipBraces() {
+        if (pos >= regex.length() || regex.charAt(pos) != '{') {
+            return false;
+        }
+        int end = regex.indexOf('}', pos);
+        pos = end < 0 ? regex.length() : end + 1;
+        return true;
+    }
+
+    private void skipChars(int count) {
+        pos = Math.min(pos + count, regex.length());
+    }
+
+    private void skipEmptyQuotes() {
+        while (regex.startsWith("\\Q\\E", pos)) {
+            pos += 4;
+        }
+    }
+
+    private static boolean isOctal(char ch) {
+        return ch >= '0' && ch <= '7';
+    }
+
+    private int parseQuantifier() {
+        if (!isQuantifierNext()) {
+            return ONCE;
+        }
+        char ch = regex.charAt(pos++);
+        int quantifier;
+        if (ch == '?' || ch == '*') {
+            quantifier = OPTIONAL;
+        } else if (ch == '+') {
+            quantifier = REPEATED;
+        } else {
+            int end = regex.indexOf('}', pos);
+            if (end < 0) {
+                return INVALID;
+            }
+            String bounds = regex.substring(pos, end);
+            pos = end + 1;
+            int comma = bounds.indexOf(',');
+            try {
+                int min = Integer.parseInt(comma < 0 ? bounds : bounds.substring(0, comma));
+                if (min == 0) {
+                    quantifier = OPTIONAL;
+                } else {
+                    quantifier = bounds.equals("1") ? ONCE : REPEATED;
+                }
+            } catch (NumberFormatException e) {
+                return INVALID;
+            }
+        }
+        // lazy and possessive modifiers
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+        return quantifier;
+    }
+
+    private boolean isQuantifierNext() {
+        if (pos >= regex.length()) {
+            return false;
+        }
+        char ch = regex.charAt(pos);
+        return ch == '?' || ch == '*' || ch == '+' || ch == '{';
+    }
+
+    private void skipGroup() {
+        int depth = 1;
+        while (depth > 0) {
+            char ch = regex.charAt(pos++);
+            if (ch == '\\') {
+                skipEscape();
+            } else if (ch == '[') {
+                skipClass();
+            } else if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+            }
+        }
+    }
+
+    private void skipEscape() {
+        if (regex.charAt(pos++) == 'Q') {
+            int end = regex.indexOf("\\E", pos);
+            pos = end < 0 ? regex.length() : end + 2;
+        }
+    }
+
+    private void skipClass() {
+        // a ] at the start of a class is literal
+        if (regex.charAt(pos) == '^') {
+            pos++;
+        }
+        if (regex.charAt(pos) == ']') {
+            pos++;
+        }
+        while (true) {
+            char ch = regex.charAt(pos++);
+            if (ch == '\\') {
+                skipEscape();
+            } else if (ch == '[') {
+                skipClass();
+            } else if (ch == ']') {
+                return;
+            }
+        }
+    }
+
+    private boolean hasCommentsFlag() {
+        int index = regex.indexOf("(?");
+        while (index >= 0) {
+            for (int i = index + 2; i < regex.length(); i++) {
+                char ch = regex.charAt(i);
+                if (ch == 'x') {
+                    return true;
+                }
+                if (!Character.isLetter(ch) && ch != '-') {
+                    break;
+                }
+            }
+            index = regex.indexOf("(?", index + 2);
+        }
+        return false;
+    }
+
+    private static String longer(String longest, StringBuilder run) {
+        return run.length() > longest.length() ? run.toString() : longest;
+    }
+}
@@ -16,8 +16,6 @@
  */
 package edu.jhuapl.dorset.nlp;
 
-import java.util.ArrayList;
-
 /**
  * Tokenizer that uses some basic rules to handle punctuation
  * <p>
@@ -26,7 +24,7 @@ import java.util.ArrayList;
  * Possessives are kept together except for plural possessives.
  * Does not handle email addresses, URLs, or acronyms.
  */
-public class RuleBasedTokenizer implements Tokenizer {
+public class RuleBasedTokenizer implements SpanTokenizer {
     private boolean ignorePunctuation;
 
     /**
@@ -48,19 +46,26 @@ public class RuleBasedTokenizer implements Tokenizer {
     }
 
     @Override
-    public String[] tokenize(String text) {
-        char[] chars = text.trim().toCharArray();
-        ArrayList<String> tokens = new ArrayList<String>();
-        StringBuilder sb = new StringBuilder();
-        for (int index = 0; index < chars.length; index++) {
-            char previousChar = (index - 1) > 0 ? chars[index - 1] : ' ';
-            char currentChar = chars[index];
-            char nextChar = (index + 1) < chars.length ? chars[index + 1] : ' ';
+    public void tokenize(CharSequence text, TokenVisitor visitor) {
+        // skip leading and trailing white space and control characters
+        int begin = 0;
+        int end = text.length();
+        while (begin < end && text.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int tokenStart = -1;
+        for (int index = begin; index < end; index++) {
+            char previousChar = index > begin ? text.charAt(index - 1) : ' ';
+            char currentChar = text.charAt(index);
+            char nextChar = (index + 1) < end ? text.charAt(index + 1) : ' ';
 
             // keep contractions together (but not plural possessives)
             if (currentChar == '\'') {
                 if (Character.isLetter(previousChar) && Character.isLetter(nextChar)) {
-                    sb.append(currentChar);
                     continue;
                 }
             }
@@ -68,38 +73,39 @@ public class RuleBasedTokenizer implements Tokenizer {
             // keep numbers together
             if (currentChar == '.' || currentChar == ',') {
                 if (Character.isDigit(previousChar) && Character.isDigit(nextChar)) {
-                    sb.append(currentChar);
                     continue;
                 }
             }
 
             // whitespace break
             if (currentChar == ' ') {
-                if (sb.length() > 0) {
-                    tokens.add(sb.toString());
-                    sb.setLength(0);
+                if (tokenStart >= 0) {
+                    visitor.visit(tokenStart, index);
+                    tokenStart = -1;
                 }
                 continue;
             }
 
             // punctuation break
             if (!Character.isLetterOrDigit(currentChar)) {
-                tokens.add(sb.toString());
-                sb.setLength(0);
+                if (tokenStart >= 0) {
+                    visitor.visit(tokenStart, index);
+                    tokenStart = -1;
+                }
                 if (!ignorePunctuation) {
-                    tokens.add(String.valueOf(currentChar));
+                    visitor.visit(index, index + 1);
                 }
-                continue;                
+                continue;
             }
 
-            sb.append(currentChar);
+            if (tokenStart < 0) {
+                tokenStart = index;
+            }
         }
 
-        if (sb.length() > 0) {
-            tokens.add(sb.toString());
+        if (tokenStart >= 0) {
+            visitor.visit(tokenStart, end);
         }
-
-        return tokens.toArray(new String[tokens.size()]);
     }
 
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+/**
+ * Tokenizer that reports tokens as offsets into the original text
+ * <p>
+ * Tokenizing into spans does not create strings. Callers that tokenize
+ * often can reuse a {@link TokenSpans} buffer so that nothing is allocated
+ * per call.
+ */
+public interface SpanTokenizer extends Tokenizer {
+    /**
+     * Tokenize some text
+     * <p>
+     * The visitor is called for each token in order.
+     *
+     * @param text  the text to tokenize
+     * @param visitor  receives the start and end offset of each token
+     */
+    public void tokenize(CharSequence text, TokenVisitor visitor);
+
+    /**
+     * Tokenize some text
+     *
+     * @param text  the text to tokenize
+     * @return array of tokens
+     */
+    @Override
+    public default String[] tokenize(String text) {
+        TokenSpans spans = new TokenSpans();
+        tokenize(text, spans);
+        return spans.toStrings(text);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of token spans
+ * <p>
+ * Pass it to {@link SpanTokenizer#tokenize(CharSequence, TokenVisitor)} to
+ * collect the start and end offsets of the tokens. The buffer grows as
+ * needed and is emptied with {@link #clear()}. It is not thread safe.
+ */
+public final class TokenSpans implements TokenVisitor {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    /**
+     * Create a token span buffer
+     */
+    public TokenSpans() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a token span buffer
+     *
+     * @param capacity  initial number of tokens that the buffer holds
+     */
+    public TokenSpans(int capacity) {
+        starts = new int[Math.max(capacity, 1)];
+        ends = new int[starts.length];
+    }
+
+    @Override
+    public void visit(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * Remove all the spans
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the number of tokens
+     *
+     * @return the number of spans in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the offset where a token starts
+     *
+     * @param index  the index of the token
+     * @return the offset of the first character of the token
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * Get the offset where a token ends
+     *
+     * @param index  the index of the token
+     * @return the offset after the last character of the token
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Get the text of a token
+     *
+     * @param text  the text that was tokenized
+     * @param index  the index of the token
+     * @return the token
+     */
+    public String getToken(CharSequence text, int index) {
+        checkIndex(index);
+        return text.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * Get the text of the tokens
+     *
+     * @param text  the text that was tokenized
+     * @return array of tokens
+     */
+    public String[] toStrings(CharSequence text) {
+        String[] tokens = new String[size];
+        for (int i = 0; i < size; i++) {
+            tokens[i] = text.subSequence(starts[i], ends[i]).toString();
+        }
+        return tokens;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps normalized tokens to dense integer ids
+ * <p>
+ * Ids are assigned in order from 0 as tokens are interned. Looking up ids
+ * is safe from any thread while tokens are being interned.
+ */
+public class Vocabulary {
+    /** Id returned for tokens that have not been interned */
+    public static final int UNKNOWN = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * Get the id of a token, adding the token if needed
+     *
+     * @param token  a normalized token
+     * @return the id of the token
+     */
+    public synchronized int intern(String token) {
+        Integer id = ids.get(token);
+        if (id == null) {
+            id = ids.size();
+            ids.put(token, id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a token
+     *
+     * @param token  a normalized token
+     * @return the id of the token or UNKNOWN
+     */
+    public int getId(String token) {
+        Integer id = ids.get(token);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Get the number of tokens
+     *
+     * @return the number of interned tokens
+     */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -21,11 +21,25 @@ package edu.jhuapl.dorset.nlp;
  * <p>
  * Does not remove punctuation.
  */
-public class WhiteSpaceTokenizer implements Tokenizer {
+public class WhiteSpaceTokenizer implements SpanTokenizer {
 
     @Override
-    public String[] tokenize(String text) {
-        return text.split("\\s+");
+    public void tokenize(CharSequence text, TokenVisitor visitor) {
+        int tokenStart = -1;
+        int length = text.length();
+        for (int index = 0; index < length; index++) {
+            if (Character.isWhitespace(text.charAt(index))) {
+                if (tokenStart >= 0) {
+                    visitor.visit(tokenStart, index);
+                    tokenStart = -1;
+                }
+            } else if (tokenStart < 0) {
+                tokenStart = index;
+            }
+        }
+        if (tokenStart >= 0) {
+            visitor.visit(tokenStart, length);
+        }
     }
 
 }
@@ -36,6 +36,7 @@ public class Report {
     protected int responseCode;
     protected long routeTime;
     protected long agentTime;
+    protected boolean cacheHit;
 
     /**
      * Default zero argument constructor to support usage as bean
@@ -74,6 +75,7 @@ public class Report {
         responseCode = report.responseCode;
         routeTime = report.routeTime;
         agentTime = report.agentTime;
+        cacheHit = report.cacheHit;
     }
 
     /**
@@ -177,6 +179,24 @@ public class Report {
         return agentTime;
     }
 
+    /**
+     * Set whether the response came from the response cache
+     *
+     * @param cacheHit  true if the response was cached
+     */
+    public void setCacheHit(boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    /**
+     * Was the response taken from the response cache
+     *
+     * @return true if the response was cached
+     */
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
     /**
      * Set the agent that handled the request
      *
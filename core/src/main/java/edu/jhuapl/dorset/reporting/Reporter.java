@@ -30,6 +30,20 @@ public interface Reporter {
      */
     public void store(Report report);
 
+    /**
+     * Store several reports
+     * <p>
+     * Reporters with a per-call overhead such as a transaction or a flush
+     * should override this to write all the reports at once.
+     *
+     * @param reports  The reports to store
+     */
+    public default void store(Report[] reports) {
+        for (Report report : reports) {
+            store(report);
+        }
+    }
+
     /**
      * Retrieve reports
      *
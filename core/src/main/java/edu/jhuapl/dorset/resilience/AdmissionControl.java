@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control that limits the requests being processed
+ * <p>
+ * Requests over the limit are rejected immediately rather than queued so
+ * that the requests that are admitted finish in time. This class uses a
+ * fixed limit. Subclasses can adapt the limit to the observed latency by
+ * overriding {@link #onComplete(long, boolean)}.
+ */
+public class AdmissionControl {
+    /** Default time a client should wait before retrying ({@value} seconds) */
+    public static final long DEFAULT_RETRY_AFTER = 1;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private long retryAfter = TimeUnit.SECONDS.toMillis(DEFAULT_RETRY_AFTER);
+
+    /**
+     * Create admission control with a fixed limit
+     *
+     * @param maxInFlight  the maximum number of requests being processed
+     */
+    public AdmissionControl(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + maxInFlight);
+        }
+        this.limit = maxInFlight;
+    }
+
+    /**
+     * Try to admit a request
+     * <p>
+     * An admitted request must call {@link #release(long, boolean)} when done.
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request
+     *
+     * @param latency  how long the request took in nanoseconds
+     * @param success  whether the request was answered in time
+     */
+    public void release(long latency, boolean success) {
+        inFlight.decrementAndGet();
+        onComplete(latency, success);
+    }
+
+    /**
+     * Get the number of requests being processed
+     *
+     * @return number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get the current limit
+     *
+     * @return the maximum number of requests in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Set how long rejected clients should wait before retrying
+     *
+     * @param retryAfter  the time to wait
+     * @param unit  the time unit
+     */
+    public void setRetryAfter(long retryAfter, TimeUnit unit) {
+        this.retryAfter = unit.toMillis(retryAfter);
+    }
+
+    /**
+     * Get how long rejected clients should wait before retrying
+     *
+     * @param unit  the time unit to return
+     * @return the time to wait
+     */
+    public long getRetryAfter(TimeUnit unit) {
+        return unit.convert(retryAfter, TimeUnit.MILLISECONDS);
+    }
+
+    protected void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Called after each admitted request completes
+     *
+     * @param latency  how long the request took in nanoseconds
+     * @param success  whether the request was answered in time
+     */
+    protected void onComplete(long latency, boolean success) {
+        // fixed limit
+    }
+}
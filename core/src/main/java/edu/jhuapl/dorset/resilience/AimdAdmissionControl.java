@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control with an adaptive limit
+ * <p>
+ * The limit follows additive increase, multiplicative decrease (AIMD). Each
+ * time a full limit's worth of requests complete within the latency target,
+ * the limit goes up by one. A request that is slower than the target or
+ * fails cuts the limit by the backoff ratio. Requests that were admitted
+ * before the last decrease do not cut it again, so a burst of slow requests
+ * decreases the limit once per round trip. The limit stays between the
+ * minimum and maximum.
+ */
+public class AimdAdmissionControl extends AdmissionControl {
+    /** Default ratio the limit is multiplied by when latency is too high */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTarget;
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private int successes;
+    private boolean decreased;
+    private long lastDecrease;
+
+    /**
+     * Create adaptive admission control
+     *
+     * @param initialLimit  the starting limit
+     * @param minLimit  the smallest limit
+     * @param maxLimit  the largest limit
+     * @param latencyTarget  latency above which the limit is decreased
+     * @param unit  the time unit of the latency target
+     */
+    public AimdAdmissionControl(int initialLimit, int minLimit, int maxLimit, long latencyTarget,
+                    TimeUnit unit) {
+        super(initialLimit);
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTarget = unit.toNanos(latencyTarget);
+    }
+
+    /**
+     * Set the ratio that the limit is multiplied by when latency is too high
+     *
+     * @param ratio  the ratio between 0 and 1
+     */
+    public void setBackoffRatio(double ratio) {
+        if (ratio <= 0 || ratio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + ratio);
+        }
+        this.backoffRatio = ratio;
+    }
+
+    @Override
+    protected synchronized void onComplete(long latency, boolean success) {
+        int limit = getLimit();
+        if (!success || latency > latencyTarget) {
+            long now = System.nanoTime();
+            if (decreased && now - latency - lastDecrease < 0) {
+                // admitted before the last decrease, which already reacted to it
+                return;
+            }
+            successes = 0;
+            decreased = true;
+            lastDecrease = now;
+            setLimit(Math.max(minLimit, (int) (limit * backoffRatio)));
+        } else if (++successes >= limit) {
+            successes = 0;
+            setLimit(Math.min(maxLimit, limit + 1));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead that limits the concurrent calls to an agent
+ * <p>
+ * A call that would exceed the limit is rejected immediately rather than
+ * waiting. A bulkhead can also have dedicated threads so that a slow agent
+ * does not use up the threads shared by the other agents.
+ */
+public class Bulkhead {
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    /**
+     * Create a bulkhead that runs calls on the shared executor
+     *
+     * @param maxConcurrentCalls  the maximum number of concurrent calls
+     */
+    public Bulkhead(int maxConcurrentCalls) {
+        this(maxConcurrentCalls, 0, "bulkhead");
+    }
+
+    /**
+     * Create a bulkhead
+     *
+     * @param maxConcurrentCalls  the maximum number of concurrent calls
+     * @param threads  number of dedicated threads or 0 to use the shared executor
+     * @param name  name used for the dedicated threads
+     */
+    public Bulkhead(int maxConcurrentCalls, int threads, final String name) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException(
+                            "Max concurrent calls must be positive: " + maxConcurrentCalls);
+        }
+        if (threads < 0) {
+            throw new IllegalArgumentException("Number of threads cannot be negative: " + threads);
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        if (threads > 0) {
+            final AtomicInteger count = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "dorset-" + name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Try to start a call
+     * <p>
+     * A call that is started must be ended with {@link #release()}.
+     *
+     * @return true if the call can proceed or false if the bulkhead is full
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * End a call
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Get the maximum number of concurrent calls
+     *
+     * @return the limit on concurrent calls
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Get the number of calls that can be started
+     *
+     * @return the number of available permits
+     */
+    public int getAvailableCalls() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Get the dedicated executor
+     *
+     * @return the executor or null if calls use the shared executor
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stop the dedicated threads
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
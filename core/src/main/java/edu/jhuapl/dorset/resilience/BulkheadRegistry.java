@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.config.MultiValuedMap;
+import edu.jhuapl.dorset.routing.RouterAgentConfig;
+import edu.jhuapl.dorset.routing.RouterAgentConfigEntry;
+
+/**
+ * Bulkheads for the agents of an application
+ * <p>
+ * Agents without a bulkhead are not limited. Bulkheads can be configured
+ * with the same configuration as the routers by adding these parameters
+ * for an agent:
+ * <ul>
+ * <li>{@value #MAX_CONCURRENT_CALLS} - maximum number of concurrent calls
+ * <li>{@value #THREADS} - number of dedicated threads (optional)
+ * </ul>
+ */
+public class BulkheadRegistry {
+    public static final String MAX_CONCURRENT_CALLS = "maxConcurrentCalls";
+    public static final String THREADS = "threads";
+
+    private final ConcurrentMap<Agent, Bulkhead> bulkheads;
+
+    /**
+     * Create an empty registry
+     */
+    public BulkheadRegistry() {
+        bulkheads = new ConcurrentHashMap<Agent, Bulkhead>();
+    }
+
+    /**
+     * Create a registry from the agent configuration
+     *
+     * @param agentsConfig  agents and their parameters
+     */
+    public BulkheadRegistry(RouterAgentConfig agentsConfig) {
+        this();
+        for (RouterAgentConfigEntry entry : agentsConfig) {
+            MultiValuedMap params = entry.getParams();
+            String maxCalls = params.getString(MAX_CONCURRENT_CALLS);
+            if (maxCalls == null) {
+                continue;
+            }
+            int threads = 0;
+            if (params.containsKey(THREADS)) {
+                threads = Integer.parseInt(params.getString(THREADS).trim());
+            }
+            add(entry.getAgent(), Integer.parseInt(maxCalls.trim()), threads);
+        }
+    }
+
+    /**
+     * Add a bulkhead for an agent
+     *
+     * @param agent  the agent
+     * @param maxConcurrentCalls  the maximum number of concurrent calls
+     * @param threads  number of dedicated threads or 0 to use the shared executor
+     * @return this
+     */
+    public BulkheadRegistry add(Agent agent, int maxConcurrentCalls, int threads) {
+        Bulkhead old = bulkheads.put(agent,
+                        new Bulkhead(maxConcurrentCalls, threads, agent.getName()));
+        if (old != null) {
+            old.shutdown();
+        }
+        return this;
+    }
+
+    /**
+     * Get the bulkhead of an agent
+     *
+     * @param agent  the agent
+     * @return the bulkhead or null if the agent is not limited
+     */
+    public Bulkhead get(Agent agent) {
+        return bulkheads.get(agent);
+    }
+
+    /**
+     * Stop the dedicated threads of all the bulkheads
+     */
+    public void shutdown() {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+    }
+}
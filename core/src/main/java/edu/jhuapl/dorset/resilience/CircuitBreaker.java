@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for an agent
+ * <p>
+ * The circuit starts closed and calls are allowed. After a number of
+ * consecutive failures the circuit opens and calls are rejected. When the
+ * open time has passed the circuit is half-open and a single trial call is
+ * allowed. The trial closes the circuit if it succeeds and opens it again if
+ * it fails.
+ * <p>
+ * Calls that take longer than the slow call threshold count as failures.
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openTime;
+    private final long slowCallThreshold;
+
+    private State state = State.CLOSED;
+    private int failureCount;
+    private long openedAt;
+    private boolean trialInProgress;
+
+    /**
+     * Create a circuit breaker
+     *
+     * @param failureThreshold  number of consecutive failures that open the circuit
+     * @param openTime  how long the circuit stays open before a trial call
+     * @param slowCallThreshold  latency at which a call counts as a failure
+     * @param unit  the time unit of the open time and slow call threshold
+     */
+    public CircuitBreaker(int failureThreshold, long openTime, long slowCallThreshold,
+                    TimeUnit unit) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException(
+                            "Failure threshold must be positive: " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openTime = unit.toNanos(openTime);
+        this.slowCallThreshold = unit.toNanos(slowCallThreshold);
+    }
+
+    /**
+     * Check whether a call is allowed
+     * <p>
+     * A call that is allowed must be followed by recording its result with
+     * {@link #recordSuccess(long)}, {@link #recordFailure()}, or
+     * {@link #recordIgnored()}.
+     *
+     * @return true if the call can be made
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openTime) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInProgress = true;
+                return true;
+            default:
+                if (trialInProgress) {
+                    return false;
+                }
+                trialInProgress = true;
+                return true;
+        }
+    }
+
+    /**
+     * Record a call that returned a good response
+     *
+     * @param latency  how long the call took in nanoseconds
+     */
+    public synchronized void recordSuccess(long latency) {
+        if (latency >= slowCallThreshold) {
+            recordFailure();
+            return;
+        }
+        failureCount = 0;
+        trialInProgress = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Record a call that failed
+     */
+    public synchronized void recordFailure() {
+        trialInProgress = false;
+        failureCount++;
+        if (state == State.HALF_OPEN || failureCount >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record a call that was cancelled before it finished
+     * <p>
+     * The call does not count as a success or a failure.
+     */
+    public synchronized void recordIgnored() {
+        trialInProgress = false;
+    }
+
+    /**
+     * Get the state of the circuit
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openTime) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Get the number of consecutive failures
+     *
+     * @return failure count
+     */
+    public synchronized int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Circuit breaker states
+     * <ul>
+     * <li>CLOSED - calls are allowed
+     * <li>OPEN - calls are rejected
+     * <li>HALF_OPEN - a single trial call is allowed
+     * </ul>
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.agents.AgentResponse;
+
+/**
+ * Circuit breakers for the agents of an application
+ * <p>
+ * A circuit breaker is created for each agent the first time it is called.
+ * Responses with an internal error, no response, or an invalid response
+ * count as failures, as do calls that time out.
+ */
+public class CircuitBreakerRegistry {
+    /** Default number of consecutive failures that open a circuit */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** Default time a circuit stays open ({@value} seconds) */
+    public static final long DEFAULT_OPEN_TIME = 30;
+
+    private final int failureThreshold;
+    private final long openTime;
+    private long slowCallThreshold = Long.MAX_VALUE;
+    private final ConcurrentMap<Agent, CircuitBreaker> breakers;
+
+    /**
+     * Create a registry with the default threshold and open time
+     */
+    public CircuitBreakerRegistry() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIME, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a registry
+     *
+     * @param failureThreshold  number of consecutive failures that open a circuit
+     * @param openTime  how long a circuit stays open before a trial call
+     * @param unit  the time unit of the open time
+     */
+    public CircuitBreakerRegistry(int failureThreshold, long openTime, TimeUnit unit) {
+        this.failureThreshold = failureThreshold;
+        this.openTime = unit.toNanos(openTime);
+        this.breakers = new ConcurrentHashMap<Agent, CircuitBreaker>();
+    }
+
+    /**
+     * Set the latency at which an agent call counts as a failure
+     * <p>
+     * Only applies to circuit breakers created after this is set.
+     *
+     * @param threshold  the latency threshold
+     * @param unit  the time unit of the threshold
+     */
+    public void setSlowCallThreshold(long threshold, TimeUnit unit) {
+        this.slowCallThreshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * Get the circuit breaker of an agent
+     *
+     * @param agent  the agent
+     * @return the circuit breaker
+     */
+    public CircuitBreaker get(Agent agent) {
+        return breakers.computeIfAbsent(agent, a -> new CircuitBreaker(failureThreshold,
+                        openTime, slowCallThreshold, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Record the result of an agent call
+     *
+     * @param breaker  the circuit breaker of the agent
+     * @param response  the agent's response or null if it did not respond
+     * @param latency  how long the call took in nanoseconds
+     */
+    public void record(CircuitBreaker breaker, AgentResponse response, long latency) {
+        if (isFailure(response)) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess(latency);
+        }
+    }
+
+    /**
+     * Get the state of the circuit breakers by agent name
+     *
+     * @return map of agent name to circuit state
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<String, CircuitBreaker.State>();
+        for (Map.Entry<Agent, CircuitBreaker> entry : breakers.entrySet()) {
+            states.put(entry.getKey().getName(), entry.getValue().getState());
+        }
+        return states;
+    }
+
+    protected boolean isFailure(AgentResponse response) {
+        if (response == null || !response.isValid()) {
+            return true;
+        }
+        switch (response.getStatus().getCode()) {
+            case AGENT_INTERNAL_ERROR:
+            case NO_RESPONSE_FROM_AGENT:
+            case INVALID_RESPONSE_FROM_AGENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
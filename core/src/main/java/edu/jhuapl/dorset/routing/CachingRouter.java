@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.metrics.Counter;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+
+/**
+ * Router that caches the routing decisions of another router
+ * <p>
+ * Only wrap routers whose decision depends on nothing but the request text
+ * without regard to case, like KeywordRouter, TriggerWordRouter,
+ * RegexRouter, TreeRouter or a ChainedRouter of those. The cache is keyed
+ * on the lowercased request text. Both {@link #route(Request)} and
+ * {@link #rank(Request)} use the cached ranking.
+ * <p>
+ * The cache is bounded by an estimate of the memory used by its entries.
+ * It is split into segments, each with its own lock and least recently
+ * used eviction, so that concurrent requests rarely contend. Call
+ * {@link #invalidate()} when the configuration of the wrapped router
+ * changes.
+ */
+public class CachingRouter implements Router {
+    /** Default memory budget of the cache ({@value} bytes) */
+    public static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    /** Name of the hit counter in a metrics registry */
+    public static final String HITS_METRIC = "router.cache.hits";
+    /** Name of the miss counter in a metrics registry */
+    public static final String MISSES_METRIC = "router.cache.misses";
+    /** Name of the eviction counter in a metrics registry */
+    public static final String EVICTIONS_METRIC = "router.cache.evictions";
+
+    private static final int SEGMENTS = 16;
+    // approximate size of a string, an array and a linked hash map entry
+    private static final int ENTRY_OVERHEAD = 40 + 16 + 48;
+
+    private final Router router;
+    private final Segment[] segments;
+    private volatile Counter hits = new Counter();
+    private volatile Counter misses = new Counter();
+    private volatile Counter evictions = new Counter();
+
+    /**
+     * Create a caching router with the default memory budget
+     *
+     * @param router  the router whose decisions are cached
+     */
+    public CachingRouter(Router router) {
+        this(router, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Create a caching router
+     *
+     * @param router  the router whose decisions are cached
+     * @param maxBytes  approximate maximum memory used by the cache
+     */
+    public CachingRouter(Router router, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.router = router;
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(maxBytes / SEGMENTS, 1));
+        }
+    }
+
+    @Override
+    public Agent[] route(Request request) {
+        return ScoredAgent.toAgents(rank(request));
+    }
+
+    @Override
+    public ScoredAgent[] rank(Request request) {
+        String key = request.getAnalyzedText().getLowerCaseText();
+        Segment segment = segmentFor(key);
+        ScoredAgent[] agents = segment.get(key);
+        if (agents != null) {
+            hits.increment();
+            return agents.clone();
+        }
+        misses.increment();
+        agents = router.rank(request);
+        evictions.add(segment.put(key, agents.clone()));
+        return agents;
+    }
+
+    @Override
+    public Agent[] getAgents() {
+        return router.getAgents();
+    }
+
+    /**
+     * Remove all cached decisions
+     */
+    public void invalidate() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Remove the cached decision for a request text
+     *
+     * @param text  the request text
+     */
+    public void invalidate(String text) {
+        String key = text.toLowerCase();
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Count hits, misses and evictions in a metrics registry
+     *
+     * @param metrics  the registry to use
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        hits = metrics.counter(HITS_METRIC);
+        misses = metrics.counter(MISSES_METRIC);
+        evictions = metrics.counter(EVICTIONS_METRIC);
+    }
+
+    /**
+     * Get the number of cache hits
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.getCount();
+    }
+
+    /**
+     * Get the number of cache misses
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.getCount();
+    }
+
+    /**
+     * Get the fraction of lookups that were hits
+     *
+     * @return hit ratio between 0 and 1 (0 if there were no lookups)
+     */
+    public double getHitRatio() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Get the number of entries evicted to stay within the memory budget
+     *
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.getCount();
+    }
+
+    /**
+     * Get the number of cached decisions
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the estimated memory used by the cached decisions
+     *
+     * @return number of bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.getBytes();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    static long estimateSize(String key, ScoredAgent[] agents) {
+        return ENTRY_OVERHEAD + 2L * key.length() + 28L * agents.length;
+    }
+
+    /**
+     * Least recently used map with a memory budget
+     */
+    private static class Segment {
+        private final long maxBytes;
+        private final LinkedHashMap<String, ScoredAgent[]> map;
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+            this.map = new LinkedHashMap<String, ScoredAgent[]>(16, 0.75f, true);
+        }
+
+        synchronized ScoredAgent[] get(String key) {
+            return map.get(key);
+        }
+
+        /**
+         * Add an entry and evict old entries if over budget
+         *
+         * @return the number of entries evicted
+         */
+        synchronized int put(String key, ScoredAgent[] agents) {
+            long size = estimateSize(key, agents);
+            if (size > maxBytes) {
+                return 0;
+            }
+            ScoredAgent[] old = map.put(key, agents);
+            if (old != null) {
+                bytes -= estimateSize(key, old);
+            }
+            bytes += size;
+            int evicted = 0;
+            Iterator<Map.Entry<String, ScoredAgent[]>> iter = map.entrySet().iterator();
+            while (bytes > maxBytes && iter.hasNext()) {
+                Map.Entry<String, ScoredAgent[]> eldest = iter.next();
+                bytes -= estimateSize(eldest.getKey(), eldest.getValue());
+                iter.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized void remove(String key) {
+            ScoredAgent[] old = map.remove(key);
+            if (old != null) {
+                bytes -= estimateSize(key, old);
+            }
+        }
+
+        synchronized void clear() {
+            map.clear();
+            bytes = 0;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -18,6 +18,10 @@ package edu.jhuapl.dorset.routing;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
@@ -27,9 +31,15 @@ import edu.jhuapl.dorset.agents.Agent;
  * <p>
  * The routing precedes in the order that the routers are passed to the
  * constructor and stops with the first router to return agents.
+ * <p>
+ * When an executor is set, the routers after the first are evaluated
+ * concurrently while the first one runs on the calling thread. The result
+ * is still that of the first router in the chain to return agents. Work of
+ * the routers after that one is cancelled if it has not started yet.
  */
 public class ChainedRouter implements Router {
     private Router[] routers;
+    private volatile Executor executor;
 
     /**
      * Create a chain router
@@ -40,16 +50,26 @@ public class ChainedRouter implements Router {
         this.routers = Arrays.copyOf(routers, routers.length);
     }
 
+    /**
+     * Set the executor for evaluating the routers concurrently
+     * <p>
+     * Concurrent evaluation lowers the latency when the first routers do
+     * not match at the cost of running routers whose result is not used.
+     *
+     * @param executor  the executor or null to evaluate the routers in order
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     @Override
     public Agent[] route(Request request) {
-        Agent[] agents = {};
-        for (Router router : routers) {
-            agents = router.route(request);
-            if (agents.length != 0) {
-                break;
-            }
-        }
-        return agents;
+        return evaluate(request, router -> router.route(request), new Agent[0]);
+    }
+
+    @Override
+    public ScoredAgent[] rank(Request request) {
+        return evaluate(request, router -> router.rank(request), new ScoredAgent[0]);
     }
 
     @Override
@@ -61,4 +81,42 @@ public class ChainedRouter implements Router {
         return agents.toArray(new Agent[agents.size()]);
     }
 
+    private <T> T[] evaluate(Request request, Function<Router, T[]> step, T[] empty) {
+        final Executor exec = executor;
+        if (exec == null || routers.length < 2) {
+            for (Router router : routers) {
+                T[] agents = step.apply(router);
+                if (agents.length != 0) {
+                    return agents;
+                }
+            }
+            return empty;
+        }
+
+        // analyze the text once before the routers share the request
+        request.getAnalyzedText();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T[]>[] futures = new CompletableFuture[routers.length];
+        for (int i = 1; i < routers.length; i++) {
+            final Router router = routers[i];
+            futures[i] = CompletableFuture.supplyAsync(() -> step.apply(router), exec);
+        }
+        try {
+            T[] agents = step.apply(routers[0]);
+            for (int i = 1; agents.length == 0 && i < routers.length; i++) {
+                agents = futures[i].join();
+            }
+            return agents.length != 0 ? agents : empty;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            for (int i = 1; i < futures.length; i++) {
+                futures[i].cancel(false);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.ResponseStatus;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.agents.Description;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
+import edu.jhuapl.dorset.reporting.Report;
+import edu.jhuapl.dorset.reporting.ReportQuery;
+import edu.jhuapl.dorset.reporting.Reporter;
+
+/**
+ * Router that classifies requests with a naive Bayes model
+ * <p>
+ * The model is trained from the examples in each agent's
+ * {@link Description} and optionally from the reports of requests that an
+ * agent answered successfully. The words of a request and pairs of adjacent
+ * words are hashed into a fixed number of features, so the memory used by
+ * the model does not grow with the amount of training data.
+ * <p>
+ * Agents are ranked by the probability that they handle the request and
+ * those below the minimum confidence are dropped. A request without any
+ * feature seen in training is not routed. The model can be retrained while
+ * requests are being routed and is replaced with a single reference write.
+ */
+public class ClassifierRouter implements Router {
+    /** Default number of hashed features */
+    public static final int DEFAULT_NUM_FEATURES = 1 << 14;
+    /** Default minimum probability for an agent to be returned */
+    public static final double DEFAULT_MIN_CONFIDENCE = 0.3;
+
+    // additive smoothing of the feature counts
+    private static final float ALPHA = 0.1f;
+    private static final int BIGRAM_SEED = 0x9e3779b9;
+
+    private final Agent[] agents;
+    private final int numFeatures;
+    private volatile Model model;
+    private volatile double minConfidence = DEFAULT_MIN_CONFIDENCE;
+
+    /**
+     * Create a router trained from the agents' description examples
+     *
+     * @param agents  the agents to route to
+     */
+    public ClassifierRouter(Agent[] agents) {
+        this(agents, DEFAULT_NUM_FEATURES);
+    }
+
+    /**
+     * Create a router trained from the agents' description examples
+     *
+     * @param agents  the agents to route to
+     * @param numFeatures  the number of hashed features
+     */
+    public ClassifierRouter(Agent[] agents, int numFeatures) {
+        if (numFeatures <= 0) {
+            throw new IllegalArgumentException("Number of features must be positive: "
+                            + numFeatures);
+        }
+        this.agents = Arrays.copyOf(agents, agents.length);
+        this.numFeatures = numFeatures;
+        train(new Report[0]);
+    }
+
+    /**
+     * Set the minimum probability for an agent to be returned
+     *
+     * @param minConfidence  probability between 0 and 1
+     */
+    public void setMinConfidence(double minConfidence) {
+        if (minConfidence < 0 || minConfidence > 1) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1: "
+                            + minConfidence);
+        }
+        this.minConfidence = minConfidence;
+    }
+
+    @Override
+    public Agent[] route(Request request) {
+        return ScoredAgent.toAgents(rank(request));
+    }
+
+    /**
+     * Rank the agents by the probability that they handle the request
+     */
+    @Override
+    public ScoredAgent[] rank(Request request) {
+        final Model current = model;
+        double[] scores = current.classify(request.getAnalyzedText());
+        if (scores == null) {
+            return new ScoredAgent[0];
+        }
+        int count = 0;
+        for (double score : scores) {
+            if (score >= minConfidence && score > 0) {
+                count++;
+            }
+        }
+        ScoredAgent[] ranked = new ScoredAgent[count];
+        int index = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= minConfidence && scores[i] > 0) {
+                ranked[index++] = new ScoredAgent(agents[i], scores[i]);
+            }
+        }
+        return ScoredAgent.sort(ranked);
+    }
+
+    @Override
+    public Agent[] getAgents() {
+        return Arrays.copyOf(agents, agents.length);
+    }
+
+    /**
+     * Retrain the model from the description examples and reports
+     * <p>
+     * Only reports of successful responses from this router's agents are
+     * used. The new model replaces the old one when training is done.
+     *
+     * @param reports  reports of past requests
+     */
+    public void train(Report[] reports) {
+        Map<String, Integer> agentIndexes = new HashMap<String, Integer>();
+        Trainer trainer = new Trainer(agents.length, numFeatures);
+        for (int i = 0; i < agents.length; i++) {
+            agentIndexes.putIfAbsent(agents[i].getName(), i);
+            Description description = agents[i].getDescription();
+            if (description == null || description.getExamples() == null) {
+                continue;
+            }
+            for (String example : description.getExamples()) {
+                if (example != null) {
+                    trainer.add(i, new AnalyzedText(example));
+                }
+            }
+        }
+        int success = ResponseStatus.Code.SUCCESS.getValue();
+        for (Report report : reports) {
+            Integer index = agentIndexes.get(report.getAgentName());
+            if (index != null && report.getResponseCode() == success
+                            && report.getRequestText() != null) {
+                trainer.add(index, new AnalyzedText(report.getRequestText()));
+            }
+        }
+        model = trainer.build();
+    }
+
+    /**
+     * Retrain the model from the reports of a reporter on an executor
+     *
+     * @param reporter  the reporter that stores reports of past requests
+     * @param query  the query for the reports to train from
+     * @param executor  the executor that runs the training
+     * @return a future that completes when the new model is in use
+     */
+    public CompletableFuture<Void> trainInBackground(Reporter reporter, ReportQuery query,
+                    Executor executor) {
+        return CompletableFuture.runAsync(() -> train(reporter.retrieve(query)), executor);
+    }
+
+    /**
+     * Get the hashed features of the words and word pairs of a text
+     */
+    static int[] features(AnalyzedText text, int numFeatures) {
+        int[] features = new int[2 * text.getTokenCount()];
+        int count = 0;
+        int previous = 0;
+        boolean hasPrevious = false;
+        for (int i = 0; i < text.getTokenCount(); i++) {
+            if (!text.isWord(i)) {
+                hasPrevious = false;
+                continue;
+            }
+            int hash = text.getNormalizedToken(i).hashCode();
+            features[count++] = Math.floorMod(hash, numFeatures);
+            if (hasPrevious) {
+                int bigram = (previous * 31 + hash) ^ BIGRAM_SEED;
+                bigram ^= bigram >>> 16;
+                features[count++] = Math.floorMod(bigram * 0x85ebca6b, numFeatures);
+            }
+            previous = hash;
+            hasPrevious = true;
+        }
+        return Arrays.copyOf(features, count);
+    }
+
+    /**
+     * Accumulates feature counts for each agent
+     */
+    private static class Trainer {
+        private final int numClasses;
+        private final int numFeatures;
+        private final float[] counts;
+        private final float[] totals;
+        private final int[] documents;
+        private final BitSet seen;
+
+        public Trainer(int numClasses, int numFeatures) {
+            this.numClasses = numClasses;
+            this.numFeatures = numFeatures;
+            counts = new float[numClasses * numFeatures];
+            totals = new float[numClasses];
+            documents = new int[numClasses];
+            seen = new BitSet(numFeatures);
+        }
+
+        public void add(int agentIndex, AnalyzedText text) {
+            int offset = agentIndex * numFeatures;
+            for (int feature : features(text, numFeatures)) {
+                counts[offset + feature]++;
+                totals[agentIndex]++;
+                seen.set(feature);
+            }
+            documents[agentIndex]++;
+        }
+
+        public Model build() {
+            int numDocuments = 0;
+            for (int count : documents) {
+                numDocuments += count;
+            }
+            float[] priors = new float[numClasses];
+            float[] weights = new float[counts.length];
+            for (int i = 0; i < numClasses; i++) {
+                if (documents[i] == 0) {
+                    priors[i] = Float.NEGATIVE_INFINITY;
+                    continue;
+                }
+                priors[i] = (float) Math.log((double) documents[i] / numDocuments);
+                double denominator = Math.log(totals[i] + ALPHA * numFeatures);
+                int offset = i * numFeatures;
+                for (int j = 0; j < numFeatures; j++) {
+                    // feature major so classification reads contiguous weights
+                    weights[j * numClasses + i] = (float) (Math.log(counts[offset + j] + ALPHA)
+                                    - denominator);
+                }
+            }
+            return new Model(numFeatures, priors, weights, (BitSet) seen.clone());
+        }
+    }
+
+    /**
+     * Immutable naive Bayes model
+     */
+    private static class Model {
+        private final int numFeatures;
+        private final float[] priors;
+        private final float[] weights;
+        private final BitSet seen;
+
+        public Model(int numFeatures, float[] priors, float[] weights, BitSet seen) {
+            this.numFeatures = numFeatures;
+            this.priors = priors;
+            this.weights = weights;
+            this.seen = seen;
+        }
+
+        /**
+         * Get the probability of each class or null if no feature is known
+         */
+        public double[] classify(AnalyzedText text) {
+            int[] features = features(text, numFeatures);
+            double[] scores = new double[priors.length];
+            for (int i = 0; i < priors.length; i++) {
+                scores[i] = priors[i];
+            }
+            boolean known = false;
+            for (int feature : features) {
+                if (!seen.get(feature)) {
+                    continue;
+                }
+                known = true;
+                int offset = feature * priors.length;
+                for (int i = 0; i < priors.length; i++) {
+                    scores[i] += weights[offset + i];
+                }
+            }
+            if (!known) {
+                return null;
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (double score : scores) {
+                max = Math.max(max, score);
+            }
+            double sum = 0;
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = Math.exp(scores[i] - max);
+                sum += scores[i];
+            }
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = Math.min(1.0, scores[i] / sum);
+            }
+            return scores;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from non-negative int keys to int values
+ * <p>
+ * Uses open addressing over primitive arrays so lookups do not box or
+ * allocate. Reads are safe from multiple threads once the map is no longer
+ * being modified.
+ */
+public final class IntIntMap {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Create an empty map
+     */
+    public IntIntMap() {
+        this(8);
+    }
+
+    /**
+     * Create an empty map
+     *
+     * @param expectedSize  number of entries expected
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity];
+    }
+
+    /**
+     * Add or replace an entry
+     *
+     * @param key  non-negative key
+     * @param value  the value
+     */
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key cannot be negative: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = find(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Get the value for a key
+     *
+     * @param key  the key
+     * @param defaultValue  value returned if the key is not in the map
+     * @return the value
+     */
+    public int get(int key, int defaultValue) {
+        if (key < 0) {
+            return defaultValue;
+        }
+        int slot = find(keys, key);
+        return keys[slot] == FREE ? defaultValue : values[slot];
+    }
+
+    /**
+     * Is the key in the map?
+     *
+     * @param key  the key
+     * @return true if it is in the map
+     */
+    public boolean containsKey(int key) {
+        return key >= 0 && keys[find(keys, key)] != FREE;
+    }
+
+    /**
+     * Get the number of entries
+     *
+     * @return the size of the map
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        values = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int find(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
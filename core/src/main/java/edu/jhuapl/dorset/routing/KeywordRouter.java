@@ -16,30 +16,39 @@
  */
 package edu.jhuapl.dorset.routing;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
-import edu.jhuapl.dorset.nlp.RuleBasedTokenizer;
-import edu.jhuapl.dorset.nlp.Tokenizer;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
+import edu.jhuapl.dorset.nlp.PhraseMatcher;
 
 /**
  * This router uses keywords to direct requests.
  * <p>
- * Each agent can have one or more keywords associated with it. Each request is
- * tokenized into words and any agent that has one of the words as a keyword
- * is returned.
+ * Each agent can have one or more keywords associated with it. A keyword
+ * can be a single word or a phrase like "stock price". Any agent that has
+ * a keyword in the request is returned. The same keyword can be used by
+ * more than one agent.
  * <p>
- * TODO how to handle duplicate keywords across agents
+ * Agents are ranked by the number of request tokens covered by their
+ * keyword matches, so an agent matching "stock price" ranks above one
+ * matching "price". Agents with the same score are returned in the order
+ * they were configured.
+ * <p>
+ * The keywords are compiled into a {@link PhraseMatcher} over the router's
+ * own {@link TokenDictionary} so routing is a single pass over the token ids of
+ * the request no matter how many keywords are configured.
+ * <p>
+ * Misspelled keywords can be matched by setting {@link #MAX_EDIT_DISTANCE}
+ * for an agent. Tokens that are not keywords are then looked up in an index
+ * of the agent's keyword words with up to that many edits.
  */
 public class KeywordRouter implements Router {
     public static final String KEYWORDS = "keywords";
+    public static final String MAX_EDIT_DISTANCE = "maxEditDistance";
 
-    private HashMap<String, Agent> agentMap;
-    private HashSet<Agent> agents;
-    private Tokenizer tokenizer;
+    private PhraseMatcher<Agent> matcher;
 
     /**
      * Create the router
@@ -47,41 +56,72 @@ public class KeywordRouter implements Router {
      * @param agentsConfig  agents and routing configuration for those agents
      */
     public KeywordRouter(RouterAgentConfig agentsConfig) {
-        agentMap = new HashMap<String, Agent>();
-        agents = new HashSet<Agent>();
-        tokenizer = new RuleBasedTokenizer();
+        PhraseMatcher.Builder<Agent> builder =
+                        new PhraseMatcher.Builder<Agent>(new TokenDictionary());
         for (RouterAgentConfigEntry entry : agentsConfig) {
             String[] keywords = entry.getParams().getStrings(KEYWORDS);
             if (keywords == null) {
                 continue;
             }
-            agents.add(entry.getAgent());
+            int distance = getMaxEditDistance(entry);
             for (String keyword : keywords) {
-                agentMap.put(keyword.toLowerCase(), entry.getAgent());
+                builder.add(keyword, entry.getAgent(), distance);
             }
         }
+        matcher = builder.build();
     }
 
     @Override
     public Agent[] route(Request request) {
-        String requestText = request.getText().toLowerCase();
-        String[] tokens = tokenizer.tokenize(requestText);
-        if (tokens.length == 0) {
-            return new Agent[0];
-        }
+        return ScoredAgent.toAgents(rank(request));
+    }
 
-        Set<Agent> agents = new HashSet<Agent>();
-        for (String token : tokens) {
-            if (agentMap.containsKey(token)) {
-                agents.add(agentMap.get(token));
+    /**
+     * Rank the agents with matching keywords
+     * <p>
+     * The score of an agent is the fraction of the request's tokens that
+     * are covered by its keyword matches.
+     */
+    @Override
+    public ScoredAgent[] rank(Request request) {
+        AnalyzedText text = request.getAnalyzedText();
+        int[] scores = matcher.score(text);
+        int count = 0;
+        for (int score : scores) {
+            if (score > 0) {
+                count++;
             }
         }
-        return agents.toArray(new Agent[agents.size()]);
+        ScoredAgent[] ranked = new ScoredAgent[count];
+        List<Agent> agents = matcher.getValues();
+        int index = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                double coverage = Math.min(1.0, (double) scores[i] / text.getTokenCount());
+                ranked[index++] = new ScoredAgent(agents.get(i), coverage);
+            }
+        }
+        return ScoredAgent.sort(ranked);
     }
 
     @Override
     public Agent[] getAgents() {
+        List<Agent> agents = matcher.getValues();
         return agents.toArray(new Agent[agents.size()]);
     }
 
+    /**
+     * Get the maximum edit distance of a configuration entry
+     *
+     * @param entry  the configuration entry of an agent
+     * @return the distance or 0 if not set
+     */
+    static int getMaxEditDistance(RouterAgentConfigEntry entry) {
+        String distance = entry.getParams().getString(MAX_EDIT_DISTANCE);
+        if (distance == null) {
+            return 0;
+        }
+        return Integer.parseInt(distance.trim());
+    }
+
 }
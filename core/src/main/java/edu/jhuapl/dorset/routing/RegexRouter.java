@@ -16,26 +16,30 @@
  */
 package edu.jhuapl.dorset.routing;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.nlp.MultiRegexMatcher;
 
 /**
  * This router uses regular expressions to direct requests.
  * <p>
  * Each agent can have one or more regular expressions associated with it.
- * The regular expressions are treated as case insensitive.
+ * The regular expressions are treated as case insensitive. Agents are
+ * ranked by the specificity of their matching expression (the fraction of
+ * the request fixed by literal characters). Agents with the same score are
+ * returned in the order they were configured.
+ * <p>
+ * The expressions are compiled into a {@link MultiRegexMatcher} which only
+ * runs the expressions whose required literals appear in the request.
  */
 public class RegexRouter implements Router {
     public static final String REGEX = "regex";
 
-    private HashMap<Pattern, Agent> agentMap;
-    private HashSet<Agent> agents;
+    private MultiRegexMatcher<Agent> matcher;
 
     /**
      * Create the router
@@ -43,34 +47,41 @@ public class RegexRouter implements Router {
      * @param agentsConfig  agents and routing configuration for those agents
      */
     public RegexRouter(RouterAgentConfig agentsConfig) {
-        agentMap = new HashMap<Pattern, Agent>();
-        agents = new HashSet<Agent>();
+        MultiRegexMatcher.Builder<Agent> builder =
+                        new MultiRegexMatcher.Builder<Agent>(Pattern.CASE_INSENSITIVE);
         for (RouterAgentConfigEntry entry : agentsConfig) {
             String[] regexes = entry.getParams().getStrings(REGEX);
             if (regexes == null) {
                 continue;
             }
-            agents.add(entry.getAgent());
             for (String regex : regexes) {
-                agentMap.put(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), entry.getAgent());
+                builder.add(regex, entry.getAgent());
             }
         }
+        matcher = builder.build();
     }
 
     @Override
     public Agent[] route(Request request) {
-        String text = request.getText();
-        Set<Agent> agents = new HashSet<Agent>();
-        for (Map.Entry<Pattern, Agent> entry : agentMap.entrySet()) {
-            if (entry.getKey().matcher(text).matches()) {
-                agents.add(entry.getValue());
+        return ScoredAgent.toAgents(rank(request));
+    }
+
+    @Override
+    public ScoredAgent[] rank(Request request) {
+        double[] scores = matcher.score(request.getText());
+        List<Agent> agents = matcher.getValues();
+        List<ScoredAgent> ranked = new ArrayList<ScoredAgent>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                ranked.add(new ScoredAgent(agents.get(i), scores[i]));
             }
         }
-        return agents.toArray(new Agent[agents.size()]);
+        return ScoredAgent.sort(ranked.toArray(new ScoredAgent[ranked.size()]));
     }
 
     @Override
     public Agent[] getAgents() {
+        List<Agent> agents = matcher.getValues();
         return agents.toArray(new Agent[agents.size()]);
     }
 
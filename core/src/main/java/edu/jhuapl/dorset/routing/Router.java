@@ -32,6 +32,20 @@ public interface Router {
      */
     public Agent[] route(Request request);
 
+    /**
+     * Get the agents to send the request to with a score for each
+     * <p>
+     * The agents are ordered from highest to lowest score. Routers that do
+     * not score their agents give each one {@link ScoredAgent#DEFAULT_SCORE}
+     * in the order returned by {@link #route(Request)}.
+     *
+     * @param request  the request object
+     * @return array of scored agents (empty array if no agent found)
+     */
+    public default ScoredAgent[] rank(Request request) {
+        return ScoredAgent.of(route(request));
+    }
+
     /**
      * Get an array of the agents for this router
      *
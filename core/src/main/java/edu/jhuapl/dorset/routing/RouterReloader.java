@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.jhuapl.dorset.ShutdownListener;
+
+/**
+ * Rebuild a router when its configuration changes
+ * <p>
+ * The reloader builds a new router with a {@link Loader} and hands it to a
+ * {@link Listener}. The old router keeps handling requests while the new
+ * one is built so large keyword or regex automata do not pause the
+ * application. If the loader fails, the old router stays in place.
+ * <p>
+ * A configuration file can be watched so that the router is rebuilt on a
+ * background thread whenever the file is modified:
+ *
+ * <pre>
+ * RouterReloader reloader = new RouterReloader(
+ *         () -&gt; new KeywordRouter(readConfig(file)), app::setRouter);
+ * reloader.watch(file, 5, TimeUnit.SECONDS);
+ * app.addShutdownListener(reloader);
+ * </pre>
+ */
+public class RouterReloader implements ShutdownListener {
+    private final Logger logger = LoggerFactory.getLogger(RouterReloader.class);
+
+    private final Loader loader;
+    private final Listener listener;
+    private final Object reloadLock = new Object();
+    private volatile Router router;
+    private volatile Exception lastError;
+    private volatile int reloadCount;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Create a router reloader
+     * <p>
+     * No router is built until {@link #reload()} is called or a watched
+     * file changes.
+     *
+     * @param loader  builds a router from the current configuration
+     * @param listener  receives each new router
+     */
+    public RouterReloader(Loader loader, Listener listener) {
+        if (loader == null) {
+            throw new IllegalArgumentException("A router reloader requires a loader");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("A router reloader requires a listener");
+        }
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    /**
+     * Build a new router and pass it to the listener
+     * <p>
+     * Reloads are serialized so listeners receive routers in the order that
+     * they were built.
+     *
+     * @return the new router
+     * @throws Exception if the loader fails (the listener is not called)
+     */
+    public Router reload() throws Exception {
+        synchronized (reloadLock) {
+            Router newRouter;
+            try {
+                newRouter = loader.load();
+                if (newRouter == null) {
+                    throw new IllegalStateException("Loader did not return a router");
+                }
+            } catch (Exception e) {
+                lastError = e;
+                throw e;
+            }
+            listener.routerReloaded(newRouter);
+            router = newRouter;
+            lastError = null;
+            reloadCount++;
+            return newRouter;
+        }
+    }
+
+    /**
+     * Watch a configuration file and reload when it is modified
+     * <p>
+     * The file is checked on a daemon thread. A change is detected from
+     * the modification time and length of the file. Only one file can be
+     * watched at a time.
+     *
+     * @param file  the configuration file
+     * @param period  time between checks of the file
+     * @param unit  the unit of the period
+     */
+    public synchronized void watch(File file, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Watch period must be positive: " + period);
+        }
+        if (watcher != null) {
+            throw new IllegalStateException("Already watching a file");
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dorset-router-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(new FileCheck(file), period, period, unit);
+    }
+
+    /**
+     * Stop watching the configuration file
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Get the most recently loaded router
+     *
+     * @return the router or null if none has been loaded
+     */
+    public Router getRouter() {
+        return router;
+    }
+
+    /**
+     * Get the error of the last reload
+     *
+     * @return the exception or null if the last reload succeeded
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Get the number of successful reloads
+     *
+     * @return the number of routers built
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Builds a router from the current configuration
+     * <p>
+     * The configuration can come from anywhere: a properties file read into
+     * a {@link RouterAgentConfig}, a Typesafe Config file, or a database.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Build a router
+         *
+         * @return a new router
+         * @throws Exception if the configuration cannot be read
+         */
+        Router load() throws Exception;
+    }
+
+    /**
+     * Receives routers built by a reloader
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Start using a new router
+         *
+         * @param router  the new router
+         */
+        void routerReloaded(Router router);
+    }
+
+    private class FileCheck implements Runnable {
+        private final File file;
+        private long lastModified;
+        private long length;
+
+        public FileCheck(File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        @Override
+        public void run() {
+            long modified = file.lastModified();
+            long size = file.length();
+            if (modified == 0 || (modified == lastModified && size == length)) {
+                return;
+            }
+            lastModified = modified;
+            length = size;
+            try {
+                reload();
+                logger.info("Reloaded router from " + file);
+            } catch (Exception e) {
+                logger.error("Failed to reload router from " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import edu.jhuapl.dorset.agents.Agent;
+
+/**
+ * An agent selected by a router and the router's confidence in it
+ * <p>
+ * Scores range from 0 (no confidence) to 1 (certain).
+ */
+public final class ScoredAgent {
+    /** Score for agents selected by routers that do not score */
+    public static final double DEFAULT_SCORE = 1.0;
+
+    /** Orders scored agents from highest to lowest score */
+    public static final Comparator<ScoredAgent> BY_SCORE = new Comparator<ScoredAgent>() {
+        @Override
+        public int compare(ScoredAgent a1, ScoredAgent a2) {
+            return Double.compare(a2.score, a1.score);
+        }
+    };
+
+    private final Agent agent;
+    private final double score;
+
+    /**
+     * Create a scored agent
+     *
+     * @param agent  the agent
+     * @param score  the confidence between 0 and 1
+     */
+    public ScoredAgent(Agent agent, double score) {
+        if (score < 0 || score > 1 || Double.isNaN(score)) {
+            throw new IllegalArgumentException("Score must be between 0 and 1: " + score);
+        }
+        this.agent = agent;
+        this.score = score;
+    }
+
+    /**
+     * Get the agent
+     *
+     * @return the agent
+     */
+    public Agent getAgent() {
+        return agent;
+    }
+
+    /**
+     * Get the score
+     *
+     * @return the confidence between 0 and 1
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Give agents the default score
+     *
+     * @param agents  the agents in order
+     * @return scored agents in the same order
+     */
+    public static ScoredAgent[] of(Agent[] agents) {
+        ScoredAgent[] scored = new ScoredAgent[agents.length];
+        for (int i = 0; i < agents.length; i++) {
+            scored[i] = new ScoredAgent(agents[i], DEFAULT_SCORE);
+        }
+        return scored;
+    }
+
+    /**
+     * Sort scored agents from highest to lowest score
+     * <p>
+     * Agents with equal scores keep their order.
+     *
+     * @param scored  the scored agents (sorted in place)
+     * @return the sorted array
+     */
+    public static ScoredAgent[] sort(ScoredAgent[] scored) {
+        Arrays.sort(scored, BY_SCORE);
+        return scored;
+    }
+
+    /**
+     * Get the agents
+     *
+     * @param scored  the scored agents
+     * @return the agents in the same order
+     */
+    public static Agent[] toAgents(ScoredAgent[] scored) {
+        Agent[] agents = new Agent[scored.length];
+        for (int i = 0; i < scored.length; i++) {
+            agents[i] = scored[i].agent;
+        }
+        return agents;
+    }
+
+    @Override
+    public String toString() {
+        return agent.getName() + "=" + score;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.nlp.Vocabulary;
+
+/**
+ * Token dictionary of a router
+ * <p>
+ * Each router creates its own dictionary and interns its keywords when it
+ * is built. At routing time, the ids of a request's tokens are looked up
+ * once and cached on the request's analyzed text, so the router compares
+ * integers instead of hashing strings. A dictionary is dropped along with
+ * its router, so rebuilding routers does not grow it.
+ */
+public final class TokenDictionary extends Vocabulary {
+
+    /**
+     * Get the ids of the normalized tokens of a request
+     *
+     * @param request  the request
+     * @return array of ids with UNKNOWN for tokens not in the dictionary
+     *         (shared, do not modify)
+     */
+    public int[] getTokenIds(Request request) {
+        return request.getAnalyzedText().getTokenIds(this);
+    }
+
+    /**
+     * Intern a keyword
+     *
+     * @param keyword  keyword in any case
+     * @return the id of the lowercase keyword
+     */
+    public int internKeyword(String keyword) {
+        return intern(keyword.toLowerCase());
+    }
+}
@@ -16,26 +16,30 @@
  */
 package edu.jhuapl.dorset.routing;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
-import edu.jhuapl.dorset.nlp.RuleBasedTokenizer;
-import edu.jhuapl.dorset.nlp.Tokenizer;
+import edu.jhuapl.dorset.nlp.FuzzyIndex;
 
 /**
  * This router looks at the first word of the request and gets the 
  * corresponding agent based on the agent name.
  * <p>
  * Requests must be of the form: [trigger] [request text]
+ * <p>
+ * Misspelled triggers are matched when {@link #MAX_EDIT_DISTANCE} is set for
+ * an agent. The fuzzy lookup only runs when the first word is not a trigger.
  */
 public class TriggerWordRouter implements Router {
     public static final String TRIGGERS = "triggers";
+    public static final String MAX_EDIT_DISTANCE = KeywordRouter.MAX_EDIT_DISTANCE;
 
-    private HashMap<String, Agent> agentMap;
-    private HashSet<Agent> agents;
-    private Tokenizer tokenizer;
+    private TokenDictionary dictionary;
+    private IntIntMap agentMap;
+    private List<Agent> agents;
+    private FuzzyIndex fuzzyIndex;
 
     /**
      * Create the router
@@ -43,32 +47,47 @@ public class TriggerWordRouter implements Router {
      * @param agentsConfig  agents and routing configuration for those agents
      */
     public TriggerWordRouter(RouterAgentConfig agentsConfig) {
-        agentMap = new HashMap<String, Agent>();
-        agents = new HashSet<Agent>();
-        tokenizer = new RuleBasedTokenizer();
+        dictionary = new TokenDictionary();
+        agentMap = new IntIntMap();
+        agents = new ArrayList<Agent>();
+        FuzzyIndex.Builder fuzzyBuilder = new FuzzyIndex.Builder();
         for (RouterAgentConfigEntry entry : agentsConfig) {
             String[] triggers = entry.getParams().getStrings(TRIGGERS);
             if (triggers == null) {
                 continue;
             }
-            agents.add(entry.getAgent());
+            int index = agents.indexOf(entry.getAgent());
+            if (index < 0) {
+                index = agents.size();
+                agents.add(entry.getAgent());
+            }
+            int distance = KeywordRouter.getMaxEditDistance(entry);
             for (String trigger : triggers) {
-                agentMap.put(trigger.toLowerCase(), entry.getAgent());
+                int id = dictionary.internKeyword(trigger);
+                agentMap.put(id, index);
+                if (distance > 0) {
+                    fuzzyBuilder.add(trigger.toLowerCase(), id, distance);
+                }
             }
         }
+        FuzzyIndex built = fuzzyBuilder.build();
+        fuzzyIndex = built.size() > 0 ? built : null;
     }
 
     @Override
     public Agent[] route(Request request) {
-        String requestText = request.getText().toLowerCase();
-        String[] tokens = tokenizer.tokenize(requestText);
-        if (tokens.length == 0) {
+        int[] tokenIds = dictionary.getTokenIds(request);
+        if (tokenIds.length == 0) {
             return new Agent[0];
         }
 
-        Agent agent = agentMap.get(tokens[0]);
-        if (agent != null) {
-            return new Agent[]{agent};
+        int index = agentMap.get(tokenIds[0], -1);
+        if (index < 0 && fuzzyIndex != null) {
+            String token = request.getAnalyzedText().getNormalizedToken(0);
+            index = agentMap.get(fuzzyIndex.find(token), -1);
+        }
+        if (index >= 0) {
+            return new Agent[]{agents.get(index)};
         } else {
             return new Agent[0];
         }
@@ -16,12 +16,9 @@
  */
 package edu.jhuapl.dorset.routing.tree;
 
-import java.util.Arrays;
-
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
-import edu.jhuapl.dorset.nlp.RuleBasedTokenizer;
-import edu.jhuapl.dorset.nlp.Tokenizer;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
 
 /**
  * Use one or more keywords to determine which of two children is returned.
@@ -30,7 +27,6 @@ public class BinaryKeywordNode implements Node {
     private String[] keywords;
     private Node matchedNode;
     private Node nonMatchedNode;
-    private Tokenizer tokenizer;
 
     /**
      * Create a keyword matching node
@@ -57,25 +53,32 @@ public class BinaryKeywordNode implements Node {
         }
         this.matchedNode = matchNode;
         this.nonMatchedNode = nonMatchNode;
-        this.tokenizer = new RuleBasedTokenizer();
     }
 
     @Override
     public Node selectChild(Request request) {
-        String requestText = request.getText().toLowerCase();
-        String[] tokens = tokenizer.tokenize(requestText);
-        if (tokens.length == 0) {
+        AnalyzedText text = request.getAnalyzedText();
+        if (text.getTokenCount() == 0) {
             return null;
         }
 
         for (String keyword : keywords) {
-            if (Arrays.asList(tokens).contains(keyword)) {
+            if (text.containsToken(keyword)) {
                 return matchedNode;
             }
         }
         return nonMatchedNode;
     }
 
+    /**
+     * Get the keywords
+     *
+     * @return array of lowercase keywords
+     */
+    String[] getKeywords() {
+        return keywords;
+    }
+
     @Override
     public Node[] getChildren() {
         return new Node[]{matchedNode, nonMatchedNode};
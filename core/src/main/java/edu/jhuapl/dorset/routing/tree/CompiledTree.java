@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing.tree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
+import edu.jhuapl.dorset.routing.IntIntMap;
+import edu.jhuapl.dorset.routing.TokenDictionary;
+
+/**
+ * A tree of nodes compiled into arrays
+ * <p>
+ * Each node becomes an index into parallel arrays and keywords are
+ * replaced by their ids in a {@link TokenDictionary} of the tree. A request is
+ * evaluated by looking up the ids of its tokens once and then following
+ * indexes, which gives the same result as
+ * calling {@link Node#selectChild(edu.jhuapl.dorset.Request)} on each node.
+ * <p>
+ * Only {@link LeafNode}, {@link BinaryKeywordNode} and
+ * {@link GenericKeywordNode} can be compiled (not their subclasses).
+ */
+final class CompiledTree {
+    private static final byte LEAF = 0;
+    private static final byte BINARY = 1;
+    private static final byte GENERIC = 2;
+    private static final int NONE = -1;
+
+    private final TokenDictionary dictionary;
+    private final int root;
+    private final byte[] kinds;
+    // binary: keyword ids and the matched and non-matched node
+    private final int[][] keywords;
+    private final int[][] targets;
+    // generic: node for each keyword id
+    private final IntIntMap[] children;
+    private final Agent[][] values;
+    private final GenericKeywordNode[] genericNodes;
+    private final int[] versions;
+
+    private CompiledTree(List<Node> nodes) {
+        dictionary = new TokenDictionary();
+        int size = nodes.size();
+        kinds = new byte[size];
+        keywords = new int[size][];
+        targets = new int[size][];
+        children = new IntIntMap[size];
+        values = new Agent[size][];
+        genericNodes = new GenericKeywordNode[size];
+        versions = new int[size];
+        root = 0;
+        Map<Node, Integer> indexes = new IdentityHashMap<Node, Integer>();
+        for (int i = 0; i < size; i++) {
+            indexes.put(nodes.get(i), i);
+        }
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get(i);
+            if (node instanceof LeafNode) {
+                kinds[i] = LEAF;
+                values[i] = node.getValue();
+            } else if (node instanceof BinaryKeywordNode) {
+                kinds[i] = BINARY;
+                String[] words = ((BinaryKeywordNode) node).getKeywords();
+                keywords[i] = new int[words.length];
+                for (int k = 0; k < words.length; k++) {
+                    keywords[i][k] = dictionary.intern(words[k]);
+                }
+                Node[] nodeChildren = node.getChildren();
+                targets[i] = new int[]{indexOf(indexes, nodeChildren[0]),
+                    indexOf(indexes, nodeChildren[1])};
+            } else {
+                kinds[i] = GENERIC;
+                GenericKeywordNode generic = (GenericKeywordNode) node;
+                genericNodes[i] = generic;
+                versions[i] = generic.getVersion();
+                Map<String, Node> map = generic.getChildMap();
+                children[i] = new IntIntMap(map.size());
+                for (Map.Entry<String, Node> entry : map.entrySet()) {
+                    children[i].put(dictionary.intern(entry.getKey()),
+                                    indexOf(indexes, entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compile a tree
+     *
+     * @param root  the root of the tree
+     * @return the compiled tree or null if the tree has a node that cannot
+     *         be compiled
+     */
+    static CompiledTree compile(Node root) {
+        if (root == null) {
+            return null;
+        }
+        Map<Node, Boolean> seen = new IdentityHashMap<Node, Boolean>();
+        List<Node> nodes = new ArrayList<Node>();
+        Deque<Node> queue = new ArrayDeque<Node>();
+        queue.add(root);
+        seen.put(root, Boolean.TRUE);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            Class<?> type = node.getClass();
+            Iterable<Node> children;
+            if (type == LeafNode.class) {
+                children = null;
+            } else if (type == BinaryKeywordNode.class) {
+                children = Arrays.asList(node.getChildren());
+            } else if (type == GenericKeywordNode.class) {
+                children = ((GenericKeywordNode) node).getChildMap().values();
+            } else {
+                return null;
+            }
+            nodes.add(node);
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null && seen.put(child, Boolean.TRUE) == null) {
+                        queue.add(child);
+                    }
+                }
+            }
+        }
+        return new CompiledTree(nodes);
+    }
+
+    /**
+     * Route analyzed text through the tree
+     *
+     * @param text  the analyzed request text
+     * @return the agents of the selected leaf (empty if there is a dead end)
+     *         or null if a node changed since the tree was compiled
+     */
+    Agent[] route(AnalyzedText text) {
+        int[] tokenIds = text.getTokenIds(dictionary);
+        int node = root;
+        while (node != NONE) {
+            switch (kinds[node]) {
+                case LEAF:
+                    return values[node].clone();
+                case BINARY:
+                    if (tokenIds.length == 0) {
+                        return new Agent[0];
+                    }
+                    node = containsAny(tokenIds, keywords[node])
+                                    ? targets[node][0] : targets[node][1];
+                    break;
+                default:
+                    if (genericNodes[node].getVersion() != versions[node]) {
+                        return null;
+                    }
+                    node = selectFirst(tokenIds, children[node]);
+                    break;
+            }
+        }
+        return new Agent[0];
+    }
+
+    private static boolean containsAny(int[] tokenIds, int[] keywordIds) {
+        for (int tokenId : tokenIds) {
+            for (int keywordId : keywordIds) {
+                if (tokenId == keywordId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int selectFirst(int[] tokenIds, IntIntMap children) {
+        for (int tokenId : tokenIds) {
+            if (children.containsKey(tokenId)) {
+                return children.get(tokenId, NONE);
+            }
+        }
+        return NONE;
+    }
+
+    private static int indexOf(Map<Node, Integer> indexes, Node node) {
+        return node == null ? NONE : indexes.get(node);
+    }
+}
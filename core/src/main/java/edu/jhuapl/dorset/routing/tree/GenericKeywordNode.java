@@ -22,8 +22,6 @@ import java.util.Map;
 
 import edu.jhuapl.dorset.Request;
 import edu.jhuapl.dorset.agents.Agent;
-import edu.jhuapl.dorset.nlp.RuleBasedTokenizer;
-import edu.jhuapl.dorset.nlp.Tokenizer;
 
 /**
  * Node for a k-ary tree using keywords for child selection.
@@ -33,14 +31,13 @@ import edu.jhuapl.dorset.nlp.Tokenizer;
  */
 public class GenericKeywordNode implements Node {
     private Map<String, Node> children;
-    private Tokenizer tokenizer;
+    private int version;
 
     /**
      * Create a keyword node with support for arbitrary number of children
      */
     public GenericKeywordNode() {
         children = new HashMap<String, Node>();
-        tokenizer = new RuleBasedTokenizer();
     }
 
     /**
@@ -51,6 +48,7 @@ public class GenericKeywordNode implements Node {
      */
     public void addChild(String keyword, Node node) {
         children.put(keyword.toLowerCase(), node);
+        version++;
     }
 
     /**
@@ -63,14 +61,12 @@ public class GenericKeywordNode implements Node {
         for (String keyword : keywords) {
             children.put(keyword.toLowerCase(), node);
         }
+        version++;
     }
 
     @Override
     public Node selectChild(Request request) {
-        String requestText = request.getText().toLowerCase();
-        String[] tokens = tokenizer.tokenize(requestText);
-
-        for (String token : tokens) {
+        for (String token : request.getAnalyzedText().getNormalizedTokens()) {
             if (children.containsKey(token)) {
                 return children.get(token);
             }
@@ -78,6 +74,26 @@ public class GenericKeywordNode implements Node {
         return null;
     }
 
+    /**
+     * Get the child nodes by keyword
+     *
+     * @return map of lowercase keyword to node
+     */
+    Map<String, Node> getChildMap() {
+        return children;
+    }
+
+    /**
+     * Get the number of times children have been added
+     * <p>
+     * Used to detect changes after the tree was compiled.
+     *
+     * @return version number
+     */
+    int getVersion() {
+        return version;
+    }
+
     @Override
     public Node[] getChildren() {
         Collection<Node> values = children.values();
@@ -33,9 +33,14 @@ import edu.jhuapl.dorset.routing.Router;
  * TreeRouter and Node supports k-ary trees though some implementations may be binary only.
  * If the router reaches a dead end (a node that is not a leaf and does not return a child),
  * it returns an empty array.
+ * <p>
+ * When the tree only contains the node types in this package, it is
+ * compiled into a flat program that tokenizes the request once and
+ * uses integer ids for keywords. Other trees are walked node by node.
  */
 public class TreeRouter implements Router {
     private Node root;
+    private volatile CompiledTree compiledTree;
 
     /**
      * Create a tree router
@@ -44,10 +49,24 @@ public class TreeRouter implements Router {
      */
     public TreeRouter(Node root) {
         this.root = root;
+        this.compiledTree = CompiledTree.compile(root);
     }
 
     @Override
     public Agent[] route(Request request) {
+        CompiledTree tree = compiledTree;
+        if (tree != null) {
+            Agent[] agents = tree.route(request.getAnalyzedText());
+            if (agents != null) {
+                return agents;
+            }
+            // a node was modified after the tree was compiled
+            compiledTree = CompiledTree.compile(root);
+        }
+        return walk(request);
+    }
+
+    private Agent[] walk(Request request) {
         Node node = root;
         while (node != null && !node.isLeaf()) {
             node = node.selectChild(request);
@@ -16,7 +16,15 @@
  */
 package edu.jhuapl.dorset;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -26,10 +34,23 @@ import static org.mockito.Mockito.*;
 import edu.jhuapl.dorset.agents.Agent;
 import edu.jhuapl.dorset.agents.AgentRequest;
 import edu.jhuapl.dorset.agents.AgentResponse;
+import edu.jhuapl.dorset.agents.AsyncAgent;
+import edu.jhuapl.dorset.agents.CacheableAgent;
+import edu.jhuapl.dorset.caching.ResponseCache;
 import edu.jhuapl.dorset.filters.RequestFilter;
+import edu.jhuapl.dorset.filters.ResponseFilter;
 import edu.jhuapl.dorset.filters.WakeupRequestFilter;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+import edu.jhuapl.dorset.reporting.Report;
+import edu.jhuapl.dorset.reporting.Reporter;
+import edu.jhuapl.dorset.resilience.AdmissionControl;
+import edu.jhuapl.dorset.resilience.BulkheadRegistry;
+import edu.jhuapl.dorset.resilience.CircuitBreaker;
+import edu.jhuapl.dorset.resilience.CircuitBreakerRegistry;
 import edu.jhuapl.dorset.routing.Router;
+import edu.jhuapl.dorset.routing.ScoredAgent;
 import edu.jhuapl.dorset.routing.SingleAgentRouter;
+import edu.jhuapl.dorset.users.User;
 
 public class ApplicationTest {
     @Test
@@ -101,6 +122,720 @@ public class ApplicationTest {
         assertEquals("test", response.getText());
     }
 
+    @Test
+    public void testProcessAsyncWithAgentWithResponse() throws Exception {
+        Request request = new Request("test");
+        Agent agent = mock(Agent.class);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("the answer"));
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{agent});
+        Application app = new Application(router);
+
+        Response response = app.processAsync(request).get();
+
+        assertEquals("the answer", response.getText());
+        app.shutdown();
+    }
+
+    @Test
+    public void testProcessAsyncWithNoAgents() throws Exception {
+        Request request = new Request("test");
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[0]);
+        Application app = new Application(router);
+
+        Response response = app.processAsync(request).get();
+
+        assertEquals(ResponseStatus.Code.NO_AVAILABLE_AGENT, response.getStatus().getCode());
+        app.shutdown();
+    }
+
+    @Test
+    public void testProcessAsyncFallsThroughToNextAgent() throws Exception {
+        Request request = new Request("test");
+        Agent agent1 = mock(Agent.class);
+        when(agent1.process((AgentRequest)anyObject())).thenReturn(null);
+        AsyncAgent agent2 = mock(AsyncAgent.class);
+        when(agent2.processAsync((AgentRequest)anyObject())).thenReturn(
+                        CompletableFuture.completedFuture(new AgentResponse("second")));
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{agent1, agent2});
+        Application app = new Application(router);
+        app.setExecutor(Runnable::run);
+
+        Response response = app.processAsync(request).get();
+
+        assertEquals("second", response.getText());
+        verify(agent2, never()).process((AgentRequest)anyObject());
+    }
+
+    private Agent createSlowAgent(final String name, final CountDownLatch interrupted) {
+        return createSlowAgent(name, new CountDownLatch(1), interrupted);
+    }
+
+    private Agent createSlowAgent(final String name, final CountDownLatch started,
+                    final CountDownLatch interrupted) {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn(name);
+        when(agent.process((AgentRequest)anyObject())).thenAnswer(new Answer<AgentResponse>() {
+            @Override
+            public AgentResponse answer(InvocationOnMock invocation) {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return new AgentResponse("slow");
+            }
+        });
+        return agent;
+    }
+
+    @Test
+    public void testConcurrentDispatchTakesFastestSuccess() throws Exception {
+        Request request = new Request("test");
+        final CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Agent slow = createSlowAgent("slow", started, interrupted);
+        Agent fast = mock(Agent.class);
+        when(fast.getName()).thenReturn("fast");
+        when(fast.process((AgentRequest)anyObject())).thenAnswer(new Answer<AgentResponse>() {
+            @Override
+            public AgentResponse answer(InvocationOnMock invocation) throws InterruptedException {
+                // make sure the slow agent is running before winning the race
+                started.await(5, TimeUnit.SECONDS);
+                return new AgentResponse("fast");
+            }
+        });
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{slow, fast});
+        Reporter reporter = mock(Reporter.class);
+        Application app = new Application(router, reporter);
+        app.setDispatchMode(Application.DispatchMode.CONCURRENT);
+
+        Response response = app.process(request);
+
+        assertEquals("fast", response.getText());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        ArgumentCaptor<Report> captor = ArgumentCaptor.forClass(Report.class);
+        verify(reporter).store(captor.capture());
+        assertEquals("fast", captor.getValue().getAgentName());
+        app.shutdown();
+    }
+
+    @Test
+    public void testHedgedDispatchStartsNextAgentAfterFailure() throws Exception {
+        Request request = new Request("test");
+        Agent agent1 = mock(Agent.class);
+        when(agent1.getName()).thenReturn("agent1");
+        when(agent1.process((AgentRequest)anyObject())).thenReturn(
+                        new AgentResponse(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER));
+        Agent agent2 = mock(Agent.class);
+        when(agent2.getName()).thenReturn("agent2");
+        when(agent2.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{agent1, agent2});
+        Application app = new Application(router);
+        app.setDispatchMode(Application.DispatchMode.HEDGED);
+        app.setHedgeDelay(1, TimeUnit.HOURS);
+
+        Response response = app.processAsync(request).get(5, TimeUnit.SECONDS);
+
+        assertEquals("answer", response.getText());
+        app.shutdown();
+    }
+
+    @Test
+    public void testHedgedDispatchFallsBackToFirstResponse() throws Exception {
+        Request request = new Request("test");
+        Agent agent1 = mock(Agent.class);
+        when(agent1.process((AgentRequest)anyObject())).thenReturn(
+                        new AgentResponse(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER));
+        Agent agent2 = mock(Agent.class);
+        when(agent2.process((AgentRequest)anyObject())).thenReturn(null);
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{agent1, agent2});
+        Application app = new Application(router);
+        app.setDispatchMode(Application.DispatchMode.HEDGED);
+        app.setHedgeDelay(0, TimeUnit.MILLISECONDS);
+
+        Response response = app.process(request);
+
+        assertEquals(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER, response.getStatus().getCode());
+        app.shutdown();
+    }
+
+    @Test
+    public void testAgentTimeout() throws Exception {
+        Request request = new Request("test");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Agent slow = createSlowAgent("slow", interrupted);
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{slow});
+        Application app = new Application(router);
+        app.setAgentTimeout(50, TimeUnit.MILLISECONDS);
+
+        Response response = app.process(request);
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        app.shutdown();
+    }
+
+    @Test
+    public void testAgentTimeoutTriesNextAgent() throws Exception {
+        Request request = new Request("test");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Agent slow = createSlowAgent("slow", interrupted);
+        Agent fast = mock(Agent.class);
+        when(fast.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("fast"));
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{slow, fast});
+        Application app = new Application(router);
+        app.setAgentTimeout(50, TimeUnit.MILLISECONDS);
+
+        Response response = app.processAsync(request).get(5, TimeUnit.SECONDS);
+
+        assertEquals("fast", response.getText());
+        app.shutdown();
+    }
+
+    @Test
+    public void testRequestDeadlinePassedToAgent() {
+        Request request = new Request("test");
+        Agent agent = mock(Agent.class);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Router router = mock(Router.class);
+        when(router.route(request)).thenReturn(new Agent[]{agent});
+        Application app = new Application(router);
+        app.setRequestTimeout(10, TimeUnit.SECONDS);
+
+        app.process(request);
+
+        ArgumentCaptor<AgentRequest> captor = ArgumentCaptor.forClass(AgentRequest.class);
+        verify(agent).process(captor.capture());
+        assertTrue(captor.getValue().hasDeadline());
+        assertTrue(captor.getValue().getRemainingTime(TimeUnit.MILLISECONDS) <= 10000);
+        app.shutdown();
+    }
+
+    @Test
+    public void testProcessBatch() {
+        Agent agent1 = mock(Agent.class);
+        when(agent1.getName()).thenReturn("agent1");
+        when(agent1.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("one"));
+        Agent agent2 = mock(Agent.class);
+        when(agent2.getName()).thenReturn("agent2");
+        when(agent2.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("two"));
+        Request request1 = new Request("first");
+        Request request2 = new Request("second");
+        Request request3 = new Request("third");
+        Request request4 = new Request("fourth");
+        Router router = mock(Router.class);
+        when(router.route(request1)).thenReturn(new Agent[]{agent1});
+        when(router.route(request2)).thenReturn(new Agent[]{agent2});
+        when(router.route(request3)).thenReturn(new Agent[0]);
+        when(router.route(request4)).thenReturn(new Agent[]{agent1});
+        Reporter reporter = mock(Reporter.class);
+        Application app = new Application(router, reporter);
+
+        List<Response> responses = app.processBatch(Arrays.asList(request1, request2, request3, request4));
+
+        assertEquals(4, responses.size());
+        assertEquals("one", responses.get(0).getText());
+        assertEquals("two", responses.get(1).getText());
+        assertEquals(ResponseStatus.Code.NO_AVAILABLE_AGENT, responses.get(2).getStatus().getCode());
+        assertEquals("one", responses.get(3).getText());
+        ArgumentCaptor<Report[]> captor = ArgumentCaptor.forClass(Report[].class);
+        verify(reporter).store(captor.capture());
+        assertEquals(4, captor.getValue().length);
+        assertEquals("agent2", captor.getValue()[1].getAgentName());
+        verify(reporter, never()).store(any(Report.class));
+        app.shutdown();
+    }
+
+    private CacheableAgent createCacheableAgent(String name, AgentResponse response) {
+        CacheableAgent agent = mock(CacheableAgent.class);
+        when(agent.getName()).thenReturn(name);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(response);
+        when(agent.getCacheTimeToLive((AgentRequest)anyObject())).thenReturn(60000L);
+        return agent;
+    }
+
+    @Test
+    public void testResponseCacheSkipsAgentsThatAreNotCacheable() {
+        // an agent with side effects like posting a message must run every time
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("poster");
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("posted"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+
+        app.process(new Request("post hello"));
+        app.process(new Request("post hello"));
+
+        verify(agent, times(2)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testResponseCache() {
+        Agent agent = createCacheableAgent("agent", new AgentResponse("answer"));
+        Reporter reporter = mock(Reporter.class);
+        Application app = new Application(new SingleAgentRouter(agent), reporter);
+        app.setResponseCache(new ResponseCache());
+
+        Response response1 = app.process(new Request("question"));
+        Response response2 = app.process(new Request("question"));
+
+        assertEquals("answer", response1.getText());
+        assertEquals("answer", response2.getText());
+        verify(agent, times(1)).process((AgentRequest)anyObject());
+        ArgumentCaptor<Report> captor = ArgumentCaptor.forClass(Report.class);
+        verify(reporter, times(2)).store(captor.capture());
+        assertFalse(captor.getAllValues().get(0).isCacheHit());
+        assertTrue(captor.getAllValues().get(1).isCacheHit());
+        assertEquals("agent", captor.getAllValues().get(1).getAgentName());
+    }
+
+    @Test
+    public void testResponseCacheIsPerUser() {
+        Agent agent = createCacheableAgent("agent", new AgentResponse("answer"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+        User alice = new User();
+        alice.setId("alice");
+        User bob = new User();
+        bob.setId("bob");
+
+        app.process(new Request("question", alice));
+        app.process(new Request("question", bob));
+        app.process(new Request("question", alice));
+
+        verify(agent, times(2)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testResponseCacheSkipsUserWithoutId() {
+        Agent agent = createCacheableAgent("agent", new AgentResponse("answer"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+
+        app.process(new Request("question", new User()));
+        app.process(new Request("question", new User()));
+
+        verify(agent, times(2)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testResponseCacheWithUncacheableAgent() {
+        CacheableAgent agent = mock(CacheableAgent.class);
+        when(agent.getName()).thenReturn("agent");
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        when(agent.getCacheTimeToLive((AgentRequest)anyObject())).thenReturn(CacheableAgent.NO_CACHE);
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+
+        app.process(new Request("question"));
+        app.process(new Request("question"));
+
+        verify(agent, times(2)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testResponseCacheSkipsErrors() {
+        Agent agent = createCacheableAgent("agent",
+                        new AgentResponse(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+
+        app.process(new Request("question"));
+        app.process(new Request("question"));
+
+        verify(agent, times(2)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testOpenCircuitSkipsAgent() {
+        Agent broken = mock(Agent.class);
+        when(broken.getName()).thenReturn("broken");
+        when(broken.process((AgentRequest)anyObject())).thenReturn(
+                        new AgentResponse(ResponseStatus.Code.AGENT_INTERNAL_ERROR));
+        Agent backup = mock(Agent.class);
+        when(backup.getName()).thenReturn("backup");
+        when(backup.process((AgentRequest)anyObject())).thenReturn(
+                        new AgentResponse(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER));
+        Router router = mock(Router.class);
+        when(router.route((Request)anyObject())).thenReturn(new Agent[]{broken, backup});
+        Application app = new Application(router);
+        app.setCircuitBreakers(new CircuitBreakerRegistry(2, 1, TimeUnit.MINUTES));
+
+        app.process(new Request("one"));
+        app.process(new Request("two"));
+        Response response = app.process(new Request("three"));
+
+        assertEquals(ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER, response.getStatus().getCode());
+        verify(broken, times(2)).process((AgentRequest)anyObject());
+        verify(backup, times(1)).process((AgentRequest)anyObject());
+        assertEquals(CircuitBreaker.State.OPEN, app.getCircuitBreakers().getStates().get("broken"));
+    }
+
+    @Test
+    public void testOpenCircuitSkipsAgentAsync() throws Exception {
+        Agent broken = mock(Agent.class);
+        when(broken.getName()).thenReturn("broken");
+        when(broken.process((AgentRequest)anyObject())).thenReturn(
+                        new AgentResponse(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT));
+        Router router = mock(Router.class);
+        when(router.route((Request)anyObject())).thenReturn(new Agent[]{broken});
+        Application app = new Application(router);
+        app.setExecutor(Runnable::run);
+        app.setCircuitBreakers(new CircuitBreakerRegistry(1, 1, TimeUnit.MINUTES));
+
+        app.processAsync(new Request("one")).get();
+        Response response = app.processAsync(new Request("two")).get();
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        verify(broken, times(1)).process((AgentRequest)anyObject());
+    }
+
+    @Test
+    public void testExpiredRequestDoesNotTripCircuit() {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("agent");
+        Router router = mock(Router.class);
+        when(router.route((Request)anyObject())).thenReturn(new Agent[]{agent});
+        Application app = new Application(router);
+        app.setCircuitBreakers(new CircuitBreakerRegistry(1, 1, TimeUnit.MINUTES));
+        Request request = new Request("expired");
+        request.setDeadline(System.nanoTime() - 1);
+
+        Response response = app.process(request);
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        verify(agent, never()).process((AgentRequest)anyObject());
+        assertNotEquals(CircuitBreaker.State.OPEN, app.getCircuitBreakers().getStates().get("agent"));
+        assertEquals(1, app.getMetrics().counter(Application.NOT_ATTEMPTED_METRIC).getCount());
+        app.shutdown();
+    }
+
+    @Test
+    public void testSaturatedAgentIsRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Agent slow = createSlowAgent("slow", started, interrupted);
+        Agent cheap = mock(Agent.class);
+        when(cheap.getName()).thenReturn("cheap");
+        when(cheap.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("cheap"));
+        Request slowRequest = new Request("slow");
+        Request cheapRequest = new Request("cheap");
+        Router router = mock(Router.class);
+        when(router.route(slowRequest)).thenReturn(new Agent[]{slow});
+        when(router.route(cheapRequest)).thenReturn(new Agent[]{cheap});
+        when(router.getAgents()).thenReturn(new Agent[]{slow, cheap});
+        Application app = new Application(router);
+        app.setBulkheads(new BulkheadRegistry().add(slow, 1, 1));
+
+        CompletableFuture<Response> first = app.processAsync(slowRequest);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Response rejected = app.process(slowRequest);
+        Response response = app.process(cheapRequest);
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, rejected.getStatus().getCode());
+        assertEquals("cheap", response.getText());
+        assertFalse(first.isDone());
+        verify(slow, times(1)).process((AgentRequest)anyObject());
+        app.shutdown();
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimedOutAgentKeepsPermitUntilDone() throws Exception {
+        final CountDownLatch finish = new CountDownLatch(1);
+        Agent stuck = mock(Agent.class);
+        when(stuck.getName()).thenReturn("stuck");
+        when(stuck.process((AgentRequest)anyObject())).thenAnswer(new Answer<AgentResponse>() {
+            @Override
+            public AgentResponse answer(InvocationOnMock invocation) {
+                // ignore interrupts like a blocking client library
+                while (true) {
+                    try {
+                        finish.await();
+                        return new AgentResponse("late");
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                }
+            }
+        });
+        BulkheadRegistry bulkheads = new BulkheadRegistry().add(stuck, 1, 0);
+        Application app = new Application(new SingleAgentRouter(stuck));
+        app.setBulkheads(bulkheads);
+        app.setAgentTimeout(50, TimeUnit.MILLISECONDS);
+
+        Response response = app.process(new Request("test"));
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        assertEquals(0, bulkheads.get(stuck).getAvailableCalls());
+        finish.countDown();
+        for (int i = 0; i < 500 && bulkheads.get(stuck).getAvailableCalls() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, bulkheads.get(stuck).getAvailableCalls());
+        app.shutdown();
+    }
+
+    @Test
+    public void testMetrics() {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("agent");
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.addRequestFilter(new WakeupRequestFilter("Dorset"));
+
+        app.process(new Request("Dorset what is up"));
+
+        MetricsRegistry metrics = app.getMetrics();
+        assertEquals(1, metrics.counter(Application.REQUESTS_METRIC).getCount());
+        assertEquals(0, metrics.counter(Application.ERRORS_METRIC).getCount());
+        assertEquals(1, metrics.histogram(Application.REQUEST_METRIC).getCount());
+        assertEquals(1, metrics.histogram("filter.WakeupRequestFilter").getCount());
+        assertEquals(1, metrics.histogram(Application.ROUTER_METRIC).getCount());
+        assertEquals(1, metrics.histogram("agent.agent").getCount());
+        assertEquals(1, metrics.histogram(Application.REPORTER_METRIC).getCount());
+    }
+
+    @Test
+    public void testBuilder() {
+        Agent agent = mock(Agent.class);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Reporter reporter = mock(Reporter.class);
+        ShutdownListener listener = mock(ShutdownListener.class);
+        Application app = new Application.Builder(new SingleAgentRouter(agent))
+                        .setReporter(reporter)
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .addShutdownListener(listener)
+                        .build();
+
+        Response response = app.process(new Request("Dorset hello"));
+
+        assertEquals("answer", response.getText());
+        ArgumentCaptor<AgentRequest> captor = ArgumentCaptor.forClass(AgentRequest.class);
+        verify(agent).process(captor.capture());
+        assertEquals("hello", captor.getValue().getText());
+        verify(reporter).store(any(Report.class));
+        assertArrayEquals(new Agent[]{agent}, app.getAgents());
+        app.shutdown();
+        verify(listener).shutdown();
+    }
+
+    @Test
+    public void testSetPipeline() {
+        Agent agent1 = mock(Agent.class);
+        when(agent1.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("one"));
+        Agent agent2 = mock(Agent.class);
+        when(agent2.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("two"));
+        Application app = new Application.Builder(new SingleAgentRouter(agent1))
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .build();
+        Pipeline old = app.getPipeline();
+
+        app.setPipeline(new Application.Builder(old).setRouter(new SingleAgentRouter(agent2))
+                        .buildPipeline());
+        Response response = app.process(new Request("Dorset hello"));
+
+        assertEquals("two", response.getText());
+        assertEquals(1, app.getPipeline().getRequestFilters().size());
+        assertSame(agent1, old.getRouter().getAgents()[0]);
+    }
+
+    @Test
+    public void testAddRequestFilterReplacesPipeline() {
+        Agent agent = mock(Agent.class);
+        Application app = new Application(new SingleAgentRouter(agent));
+        Pipeline old = app.getPipeline();
+
+        app.addRequestFilter(new WakeupRequestFilter("Dorset"));
+
+        assertNotSame(old, app.getPipeline());
+        assertEquals(0, old.getRequestFilters().size());
+        assertEquals(1, app.getPipeline().getRequestFilters().size());
+    }
+
+    @Test
+    public void testResponseFilters() throws Exception {
+        Agent agent = mock(Agent.class);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Reporter reporter = mock(Reporter.class);
+        ResponseFilter filter = response -> new Response(response.getText().toUpperCase());
+        Application app = new Application.Builder(new SingleAgentRouter(agent))
+                        .setReporter(reporter)
+                        .addResponseFilter(filter)
+                        .build();
+
+        assertEquals("ANSWER", app.process(new Request("hello")).getText());
+        assertEquals("ANSWER", app.processAsync(new Request("hello")).get().getText());
+        List<Response> responses = app.processBatch(Arrays.asList(new Request("hello")));
+        assertEquals("ANSWER", responses.get(0).getText());
+        ArgumentCaptor<Report> captor = ArgumentCaptor.forClass(Report.class);
+        verify(reporter, times(2)).store(captor.capture());
+        assertEquals("ANSWER", captor.getValue().getResponseText());
+        app.shutdown();
+    }
+
+    @Test
+    public void testResponseCacheStoresFilteredResponse() throws Exception {
+        Agent agent = createCacheableAgent("agent", new AgentResponse("answer"));
+        ResponseFilter filter = mock(ResponseFilter.class);
+        when(filter.filter((Response)anyObject())).thenReturn(new Response("ANSWER"));
+        Application app = new Application.Builder(new SingleAgentRouter(agent))
+                        .addResponseFilter(filter)
+                        .build();
+        app.setResponseCache(new ResponseCache());
+
+        assertEquals("ANSWER", app.process(new Request("hello")).getText());
+        assertEquals("ANSWER", app.process(new Request("hello")).getText());
+        assertEquals("ANSWER", app.processAsync(new Request("hello")).get().getText());
+        assertEquals("ANSWER", app.processBatch(Arrays.asList(new Request("hello"))).get(0).getText());
+
+        verify(filter, times(1)).filter((Response)anyObject());
+        verify(agent, times(1)).process((AgentRequest)anyObject());
+        app.shutdown();
+    }
+
+    @Test
+    public void testAddResponseFilterClearsResponseCache() {
+        Agent agent = createCacheableAgent("agent", new AgentResponse("answer"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        app.setResponseCache(new ResponseCache());
+        assertEquals("answer", app.process(new Request("hello")).getText());
+
+        app.addResponseFilter(response -> new Response(response.getText().toUpperCase()));
+
+        assertEquals("ANSWER", app.process(new Request("hello")).getText());
+    }
+
+    @Test
+    public void testSetRouter() {
+        Agent agent1 = mock(Agent.class);
+        Agent agent2 = mock(Agent.class);
+        when(agent2.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("two"));
+        Application app = new Application.Builder(new SingleAgentRouter(agent1))
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .build();
+
+        app.setRouter(new SingleAgentRouter(agent2));
+
+        assertArrayEquals(new Agent[]{agent2}, app.getAgents());
+        assertEquals("two", app.process(new Request("Dorset hello")).getText());
+        assertEquals(1, app.getPipeline().getRequestFilters().size());
+    }
+
+    @Test
+    public void testSetRouterClearsResponseCache() {
+        Agent agent1 = createCacheableAgent("agent1", new AgentResponse("one"));
+        Agent agent2 = createCacheableAgent("agent2", new AgentResponse("two"));
+        Application app = new Application(new SingleAgentRouter(agent1));
+        app.setResponseCache(new ResponseCache());
+        assertEquals("one", app.process(new Request("hello")).getText());
+
+        app.setRouter(new SingleAgentRouter(agent2));
+
+        assertEquals("two", app.process(new Request("hello")).getText());
+    }
+
+    @Test
+    public void testAdmissionControlShedsRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Agent slow = createSlowAgent("slow", started, interrupted);
+        Router router = mock(Router.class);
+        when(router.route((Request)anyObject())).thenReturn(new Agent[]{slow});
+        Reporter reporter = mock(Reporter.class);
+        Application app = new Application(router, reporter);
+        app.setAdmissionControl(new AdmissionControl(1));
+
+        CompletableFuture<Response> first = app.processAsync(new Request("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Response response = app.process(new Request("second"));
+
+        assertEquals(ResponseStatus.Code.OVERLOADED, response.getStatus().getCode());
+        assertEquals(1, app.getMetrics().counter(Application.SHED_METRIC).getCount());
+        ArgumentCaptor<Report> captor = ArgumentCaptor.forClass(Report.class);
+        verify(reporter).store(captor.capture());
+        assertEquals("second", captor.getValue().getRequestText());
+        assertEquals(ResponseStatus.Code.OVERLOADED.getValue(), captor.getValue().getResponseCode());
+
+        first.cancel(true);
+        app.shutdown();
+    }
+
+    @Test
+    public void testAdmissionControlReleases() {
+        Agent agent = mock(Agent.class);
+        when(agent.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("answer"));
+        Application app = new Application(new SingleAgentRouter(agent));
+        AdmissionControl admission = new AdmissionControl(1);
+        app.setAdmissionControl(admission);
+
+        assertEquals("answer", app.process(new Request("one")).getText());
+        assertEquals("answer", app.process(new Request("two")).getText());
+        assertEquals(0, admission.getInFlight());
+    }
+
+    @Test
+    public void testBatchAdmissionLatencyIsPerRequest() {
+        Agent slow = mock(Agent.class);
+        when(slow.getName()).thenReturn("slow");
+        when(slow.process((AgentRequest)anyObject())).thenAnswer(new Answer<AgentResponse>() {
+            @Override
+            public AgentResponse answer(InvocationOnMock invocation) throws Exception {
+                Thread.sleep(200);
+                return new AgentResponse("slow");
+            }
+        });
+        Request slowRequest = new Request("slow");
+        Request fastRequest = new Request("fast");
+        Router router = mock(Router.class);
+        when(router.route(slowRequest)).thenReturn(new Agent[]{slow});
+        when(router.route(fastRequest)).thenReturn(new Agent[0]);
+        final List<Long> latencies = new ArrayList<Long>();
+        Application app = new Application(router);
+        app.setAdmissionControl(new AdmissionControl(10) {
+            @Override
+            protected void onComplete(long latency, boolean success) {
+                latencies.add(latency);
+            }
+        });
+
+        app.processBatch(Arrays.asList(slowRequest, fastRequest));
+
+        assertEquals(2, latencies.size());
+        assertTrue(latencies.get(0) >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(latencies.get(1) < TimeUnit.MILLISECONDS.toNanos(100));
+        app.shutdown();
+    }
+
+    @Test
+    public void testMinRoutingScoreSkipsAgents() {
+        Request request = new Request("test");
+        Agent weak = mock(Agent.class);
+        when(weak.process((AgentRequest)anyObject())).thenReturn(new AgentResponse("weak"));
+        Agent strong = mock(Agent.class);
+        when(strong.process((AgentRequest)anyObject())).thenReturn(null);
+        Router router = mock(Router.class);
+        when(router.rank(request)).thenReturn(new ScoredAgent[]{
+            new ScoredAgent(strong, 0.9), new ScoredAgent(weak, 0.1)});
+        Application app = new Application(router);
+        app.setMinRoutingScore(0.5);
+
+        Response response = app.process(request);
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        verify(strong, times(1)).process((AgentRequest)anyObject());
+        verify(weak, never()).process((AgentRequest)anyObject());
+    }
+
     @Test
     public void testShutdown() {
         Router router = mock(Router.class);
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.filters.AliasRequestFilter;
+import edu.jhuapl.dorset.filters.PayloadCompactionFilter;
+import edu.jhuapl.dorset.filters.RequestFilter;
+import edu.jhuapl.dorset.filters.WakeupRequestFilter;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+import edu.jhuapl.dorset.routing.Router;
+import edu.jhuapl.dorset.routing.SingleAgentRouter;
+
+public class PipelineTest {
+    @Test
+    public void testFilterRequest() {
+        Pipeline pipeline = new Application.Builder(mock(SingleAgentRouter.class))
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .buildPipeline();
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        Request request = pipeline.filterRequest(new Request("Dorset what time is it"), metrics);
+
+        assertEquals("what time is it", request.getText());
+        assertEquals(1, metrics.histogram("filter.WakeupRequestFilter").getCount());
+    }
+
+    @Test
+    public void testTextFiltersShareBuffer() {
+        Map<String, String> aliases = new HashMap<String, String>();
+        aliases.put("film", "movie");
+        RequestFilter lowerCase = request -> {
+            request.setText(request.getText().toLowerCase());
+            return request;
+        };
+        Pipeline pipeline = new Application.Builder(mock(SingleAgentRouter.class))
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .addRequestFilter(new AliasRequestFilter(aliases))
+                        .addRequestFilter(lowerCase)
+                        .addRequestFilter(new WakeupRequestFilter("dorset"))
+                        .buildPipeline();
+        Request request = spy(new Request("Dorset Play the FILM dorset"));
+
+        request = pipeline.filterRequest(request, new MetricsRegistry());
+
+        assertEquals("play the movie", request.getText());
+        // once for the first two filters, once by lowerCase and once at the end
+        verify(request, times(3)).setText(anyString());
+    }
+
+    @Test
+    public void testTextFilterWithoutChange() {
+        Pipeline pipeline = new Application.Builder(mock(SingleAgentRouter.class))
+                        .addRequestFilter(new WakeupRequestFilter("Dorset"))
+                        .buildPipeline();
+        Request request = spy(new Request("what time is it"));
+
+        pipeline.filterRequest(request, new MetricsRegistry());
+
+        verify(request, never()).setText(anyString());
+    }
+
+    @Test
+    public void testFilterResponse() {
+        Pipeline pipeline = new Application.Builder(mock(SingleAgentRouter.class))
+                        .addResponseFilter(new PayloadCompactionFilter())
+                        .buildPipeline();
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        Response response = pipeline.filterResponse(
+                        new Response(Response.Type.JSON, "data", "{ \"a\": 1 }"), metrics);
+
+        assertEquals("{\"a\":1}", response.getPayload());
+        assertEquals(1, metrics.histogram("filter.PayloadCompactionFilter").getCount());
+    }
+
+    @Test
+    public void testGetAgent() {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("test");
+        Pipeline pipeline = new Application.Builder(new SingleAgentRouter(agent)).buildPipeline();
+
+        assertSame(agent, pipeline.getAgent("test"));
+        assertNull(pipeline.getAgent("other"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFiltersAreImmutable() {
+        Pipeline pipeline = new Application.Builder(mock(SingleAgentRouter.class)).buildPipeline();
+
+        pipeline.getRequestFilters().add(mock(RequestFilter.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRouterRequired() {
+        Router router = null;
+        new Application.Builder(router).buildPipeline();
+    }
+}
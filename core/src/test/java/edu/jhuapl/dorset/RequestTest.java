@@ -16,7 +16,10 @@
  */
 package edu.jhuapl.dorset;
 
+import static org.junit.Assert.*;
+
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -29,4 +32,39 @@ public class RequestTest {
         new Request("What is it?", new String(charArray));
     }
 
+    @Test
+    public void testNoDeadline() {
+        Request request = new Request("What is it?");
+
+        assertFalse(request.hasDeadline());
+        assertEquals(Long.MAX_VALUE, request.getRemainingTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSetTimeout() {
+        Request request = new Request("What is it?");
+        request.setTimeout(10, TimeUnit.SECONDS);
+
+        assertTrue(request.hasDeadline());
+        long remaining = request.getRemainingTime(TimeUnit.MILLISECONDS);
+        assertTrue(remaining > 0 && remaining <= 10000);
+    }
+
+    @Test
+    public void testAnalyzedTextIsShared() {
+        Request request = new Request("What is it?");
+
+        assertSame(request.getAnalyzedText(), request.getAnalyzedText());
+        assertEquals("what", request.getAnalyzedText().getNormalizedToken(0));
+    }
+
+    @Test
+    public void testSetTextResetsAnalyzedText() {
+        Request request = new Request("What is it?");
+        request.getAnalyzedText();
+        request.setText("Who are you?");
+
+        assertEquals("who", request.getAnalyzedText().getNormalizedToken(0));
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.agents;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class AsyncAgentAdapterTest {
+
+    @Test
+    public void testProcessAsync() throws Exception {
+        Agent agent = mock(Agent.class);
+        when(agent.process(any(AgentRequest.class))).thenReturn(new AgentResponse("hello"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncAgent asyncAgent = new AsyncAgentAdapter(agent, executor);
+
+        AgentResponse response = asyncAgent.processAsync(new AgentRequest("hi")).get();
+
+        assertEquals("hello", response.getText());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testProcessAsyncWithException() throws Exception {
+        Agent agent = mock(Agent.class);
+        when(agent.process(any(AgentRequest.class))).thenThrow(new IllegalStateException("bad"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncAgent asyncAgent = new AsyncAgentAdapter(agent, executor);
+
+        try {
+            asyncAgent.processAsync(new AgentRequest("hi")).get();
+            fail("Expected an exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelInterruptsAgent() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        Agent agent = mock(Agent.class);
+        when(agent.process(any(AgentRequest.class))).thenAnswer(new Answer<AgentResponse>() {
+            @Override
+            public AgentResponse answer(InvocationOnMock invocation) {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncAgent asyncAgent = new AsyncAgentAdapter(agent, executor);
+
+        CompletableFuture<AgentResponse> future = asyncAgent.processAsync(new AgentRequest("hi"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAdaptReturnsAsyncAgent() {
+        AsyncAgent agent = mock(AsyncAgent.class);
+
+        assertSame(agent, AsyncAgentAdapter.adapt(agent, null));
+    }
+
+}
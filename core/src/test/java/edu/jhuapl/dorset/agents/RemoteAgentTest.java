@@ -19,7 +19,10 @@ package edu.jhuapl.dorset.agents;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import edu.jhuapl.dorset.ResponseStatus;
 import edu.jhuapl.dorset.agents.AgentRequest;
@@ -96,4 +99,34 @@ public class RemoteAgentTest {
         assertNull(response.getText());
         assertEquals(ResponseStatus.Code.INVALID_RESPONSE_FROM_AGENT, response.getStatus().getCode());
     }
+
+    @Test
+    public void testProcessWithDeadline() {
+        String json = "{\"type\":\"text\",\"text\":\"2\", \"status\":{\"code\":0, \"message\":\"Success\"}}";
+        HttpClient client = getMockClient(json);
+        RemoteAgent agent = new RemoteAgent("http://example.org/", client);
+        AgentRequest request = new AgentRequest("what is 1 + 1?");
+        request.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+
+        agent.process(request);
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(client).execute(captor.capture());
+        int timeout = Integer.parseInt(captor.getValue().getHeaders().get(RemoteAgent.TIMEOUT_HEADER));
+        assertTrue(timeout > 0 && timeout <= 10000);
+        assertEquals(Integer.valueOf(timeout), captor.getValue().getTimeout());
+    }
+
+    @Test
+    public void testProcessWithExpiredDeadline() {
+        HttpClient client = getMockClient("{}");
+        RemoteAgent agent = new RemoteAgent("http://example.org/", client);
+        AgentRequest request = new AgentRequest("what is 1 + 1?");
+        request.setDeadline(System.nanoTime() - 1);
+
+        AgentResponse response = agent.process(request);
+
+        assertEquals(ResponseStatus.Code.NO_RESPONSE_FROM_AGENT, response.getStatus().getCode());
+        verify(client, never()).execute(any(HttpRequest.class));
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.caching;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Response;
+
+public class ResponseCacheTest {
+    @Test
+    public void testGetMissing() {
+        ResponseCache cache = new ResponseCache();
+
+        assertNull(cache.get("test"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testPutAndGet() {
+        ResponseCache cache = new ResponseCache();
+        Response response = new Response("answer");
+
+        cache.put("test", response, "agent");
+        ResponseCache.CachedResponse entry = cache.get("test");
+
+        assertSame(response, entry.getResponse());
+        assertEquals("agent", entry.getAgentName());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testNoCache() {
+        ResponseCache cache = new ResponseCache();
+
+        cache.put("test", new Response("answer"), "agent", 0, TimeUnit.SECONDS);
+
+        assertNull(cache.get("test"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        ResponseCache cache = new ResponseCache();
+
+        cache.put("test", new Response("answer"), "agent", 1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+
+        assertNull(cache.get("test"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache(2, 1, TimeUnit.MINUTES);
+
+        cache.put("one", new Response("1"), "agent");
+        cache.put("two", new Response("2"), "agent");
+        cache.get("one");
+        cache.put("three", new Response("3"), "agent");
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("one"));
+        assertNull(cache.get("two"));
+        assertNotNull(cache.get("three"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new ResponseCache(0, 1, TimeUnit.MINUTES);
+    }
+}
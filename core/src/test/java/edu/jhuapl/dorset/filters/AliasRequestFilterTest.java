@@ -1,8 +1,10 @@
 package edu.jhuapl.dorset.filters;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.junit.Test;
@@ -75,4 +77,85 @@ public class AliasRequestFilterTest {
 
     }
 
+    @Test
+    public void AliasRequestFilterLongestMatch() {
+        String strRequest = "Where is the New York Stock Exchange?";
+        String strFilteredRequest = "Where is the NYSE?";
+
+        Map<String, String> aliasMap = new HashMap<String, String>();
+        aliasMap.put("new york", "NYC");
+        aliasMap.put("new york stock exchange", "NYSE");
+        aliasMap.put("stock", "equity");
+
+        RequestFilter requestFilter = new AliasRequestFilter(aliasMap);
+
+        Request request = new Request(strRequest);
+        request = requestFilter.filter(request);
+        assertEquals(strFilteredRequest, request.getText());
+
+    }
+
+    @Test
+    public void AliasRequestFilterReplacementsNotRewritten() {
+        String strRequest = "Show the film and the movie";
+        String strFilteredRequest = "Show the movie and the picture";
+
+        Map<String, String> aliasMap = new LinkedHashMap<String, String>();
+        aliasMap.put("film", "movie");
+        aliasMap.put("movie", "picture");
+
+        RequestFilter requestFilter = new AliasRequestFilter(aliasMap);
+
+        Request request = new Request(strRequest);
+        request = requestFilter.filter(request);
+        assertEquals(strFilteredRequest, request.getText());
+
+    }
+
+    @Test
+    public void AliasRequestFilterWordBoundaries() {
+        String strRequest = "JHU, jhuapl and jhu.";
+        String strFilteredRequest = "Johns Hopkins University, jhuapl and Johns Hopkins University.";
+
+        Map<String, String> aliasMap = new HashMap<String, String>();
+        aliasMap.put("jhu", "Johns Hopkins University");
+
+        RequestFilter requestFilter = new AliasRequestFilter(aliasMap);
+
+        Request request = new Request(strRequest);
+        request = requestFilter.filter(request);
+        assertEquals(strFilteredRequest, request.getText());
+
+    }
+
+    @Test
+    public void AliasRequestFilterNoMatch() {
+        String strRequest = "What is the runtime for Finding Nemo?";
+
+        Map<String, String> aliasMap = new HashMap<String, String>();
+        aliasMap.put("film", "movie");
+
+        RequestFilter requestFilter = new AliasRequestFilter(aliasMap);
+
+        Request request = new Request(strRequest);
+        request = requestFilter.filter(request);
+        assertSame(strRequest, request.getText());
+
+    }
+
+    @Test
+    public void AliasRequestFilterRewritesBufferInPlace() {
+        Map<String, String> aliasMap = new HashMap<String, String>();
+        aliasMap.put("jhu", "Johns Hopkins University");
+        aliasMap.put("apl", "APL");
+        aliasMap.put("please", "");
+
+        TextRequestFilter requestFilter = new AliasRequestFilter(aliasMap);
+        TextBuffer text = new TextBuffer("please ask jhu apl about jhu");
+        requestFilter.rewrite(text);
+
+        assertEquals(" ask Johns Hopkins University APL about Johns Hopkins University",
+                        text.toString());
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Response;
+import edu.jhuapl.dorset.ResponseStatus;
+
+public class PayloadCompactionFilterTest {
+
+    private static String createImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) * 0x010203);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return Base64.getEncoder().encodeToString(output.toByteArray());
+    }
+
+    private static BufferedImage readImage(String payload) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(payload)));
+    }
+
+    @Test
+    public void testCompactJson() {
+        String payload = "{\n  \"name\": \"IBM\",\n  \"data\": [ 1, 2, 3 ],\n"
+                        + "  \"nested\": \"{ \\\"x\\\": [ 1, 2 ] }\"\n}";
+        Response response = new Response(Response.Type.JSON, "stock data", payload);
+
+        Response filtered = new PayloadCompactionFilter().filter(response);
+
+        assertEquals(Response.Type.JSON, filtered.getType());
+        assertEquals("stock data", filtered.getText());
+        assertEquals("{\"name\":\"IBM\",\"data\":[1,2,3],\"nested\":\"{\\\"x\\\":[1,2]}\"}",
+                        filtered.getPayload());
+    }
+
+    @Test
+    public void testInvalidJsonIsUnchanged() {
+        Response response = new Response(Response.Type.JSON, "data", "{ not json");
+
+        assertSame(response, new PayloadCompactionFilter().filter(response));
+    }
+
+    @Test
+    public void testResponsesWithoutPayloadAreUnchanged() {
+        Response text = new Response("hello");
+        Response error = new Response(new ResponseStatus(ResponseStatus.Code.AGENT_INTERNAL_ERROR));
+        PayloadCompactionFilter filter = new PayloadCompactionFilter();
+
+        assertSame(text, filter.filter(text));
+        assertSame(error, filter.filter(error));
+    }
+
+    @Test
+    public void testImagesUnchangedByDefault() throws Exception {
+        Response response = new Response(Response.Type.IMAGE_EMBED, "image", createImage(4, 4));
+
+        assertSame(response, new PayloadCompactionFilter().filter(response));
+    }
+
+    @Test
+    public void testDownscaleImage() throws Exception {
+        Response response = new Response(Response.Type.IMAGE_EMBED, "image", createImage(200, 100));
+        PayloadCompactionFilter filter = new PayloadCompactionFilter();
+        filter.setMaxImageSize(40);
+
+        Response filtered = filter.filter(response);
+
+        assertEquals(Response.Type.IMAGE_EMBED, filtered.getType());
+        BufferedImage image = readImage(filtered.getPayload());
+        assertEquals(40, image.getWidth());
+        assertEquals(20, image.getHeight());
+    }
+
+    @Test
+    public void testSmallImageIsNotScaled() throws Exception {
+        Response response = new Response(Response.Type.IMAGE_EMBED, "image", createImage(10, 10));
+        PayloadCompactionFilter filter = new PayloadCompactionFilter();
+        filter.setMaxImageSize(40);
+
+        assertSame(response, filter.filter(response));
+    }
+
+    @Test
+    public void testImageStore() throws Exception {
+        String payload = createImage(10, 10);
+        Response response = new Response(Response.Type.IMAGE_EMBED, "image",
+                        "data:image/png;base64," + payload);
+        byte[][] stored = new byte[1][];
+        PayloadCompactionFilter filter = new PayloadCompactionFilter();
+        filter.setImageStore(image -> {
+            stored[0] = image;
+            return "http://example.com/images/1.png";
+        });
+
+        Response filtered = filter.filter(response);
+
+        assertEquals(Response.Type.IMAGE_URL, filtered.getType());
+        assertEquals("image", filtered.getText());
+        assertEquals("http://example.com/images/1.png", filtered.getPayload());
+        assertArrayEquals(Base64.getDecoder().decode(payload), stored[0]);
+    }
+
+    @Test
+    public void testInvalidImageIsUnchanged() {
+        Response response = new Response(Response.Type.IMAGE_EMBED, "image", "bm90IGFuIGltYWdl");
+        PayloadCompactionFilter filter = new PayloadCompactionFilter();
+        filter.setMaxImageSize(40);
+
+        assertSame(response, filter.filter(response));
+    }
+}
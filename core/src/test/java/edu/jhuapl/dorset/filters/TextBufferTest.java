@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.filters;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TextBufferTest {
+
+    @Test
+    public void testUnmodifiedTextIsNotCopied() {
+        String original = "what time is it";
+        TextBuffer text = new TextBuffer(original);
+
+        assertEquals(5, text.indexOf("time", 0));
+        assertEquals('w', text.charAt(0));
+        text.delete(3, 3);
+        text.trim();
+
+        assertFalse(text.isModified());
+        assertSame(original, text.toString());
+    }
+
+    @Test
+    public void testEdits() {
+        TextBuffer text = new TextBuffer("  what time is it ");
+
+        text.trim().replace(5, 9, "day").delete(8, 11);
+
+        assertTrue(text.isModified());
+        assertEquals("what day it", text.toString());
+        assertEquals(11, text.length());
+        assertEquals(9, text.indexOf("it", 0));
+        assertEquals("day", text.subSequence(5, 8).toString());
+    }
+
+    @Test
+    public void testTrimAllWhitespace() {
+        assertEquals("", new TextBuffer(" \t ").trim().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullText() {
+        new TextBuffer(null);
+    }
+}
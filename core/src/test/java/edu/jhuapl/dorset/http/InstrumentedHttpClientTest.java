@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.http;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+
+public class InstrumentedHttpClientTest {
+    @Test
+    public void testExecute() {
+        HttpRequest request = HttpRequest.get("http://example.org/");
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.isError()).thenReturn(false);
+        HttpClient client = mock(HttpClient.class);
+        when(client.execute(request)).thenReturn(response);
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        HttpClient instrumented = new InstrumentedHttpClient(client, metrics);
+
+        assertSame(response, instrumented.execute(request));
+        assertEquals(1, metrics.histogram(InstrumentedHttpClient.LATENCY).getCount());
+        assertEquals(0, metrics.counter(InstrumentedHttpClient.ERRORS).getCount());
+    }
+
+    @Test
+    public void testExecuteWithError() {
+        HttpRequest request = HttpRequest.get("http://example.org/");
+        HttpClient client = mock(HttpClient.class);
+        when(client.execute(request)).thenReturn(null);
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        HttpClient instrumented = new InstrumentedHttpClient(client, metrics);
+
+        assertNull(instrumented.execute(request));
+        assertEquals(1, metrics.counter(InstrumentedHttpClient.ERRORS).getCount());
+    }
+}
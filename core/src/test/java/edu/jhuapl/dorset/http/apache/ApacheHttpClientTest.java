@@ -209,4 +209,19 @@ public class ApacheHttpClientTest {
         assertEquals((byte)0xd8, jpeg[1]);
         assertEquals(35588, jpeg.length);
     }
+    @Test
+    public void testRequestHeader() {
+        HttpClient client = new ApacheHttpClient();
+
+        HttpRequest request = HttpRequest.get("http://httpbin.org/headers").addHeader("X-Test", "hello")
+                        .setTimeout(5000);
+        HttpResponse response = client.execute(request);
+
+        assertNotNull(response);
+        assertTrue(response.isSuccess());
+        JsonObject jsonObj = getJsonObject(response.asString());
+        JsonObject headers = jsonObj.get("headers").getAsJsonObject();
+        assertEquals("hello", headers.get("X-Test").getAsString());
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HistogramTest {
+    @Test
+    public void testEmpty() {
+        Histogram.Snapshot snapshot = new Histogram().getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getP99());
+        assertEquals(0.0, snapshot.getMean(), 0.0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50, snapshot.getP50());
+        assertEquals(90, snapshot.getP90());
+        assertEquals(50.5, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    public void testRelativeError() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+
+        assertEquals(50000000, snapshot.getP50(), 50000000 * 0.02);
+        assertEquals(99000000, snapshot.getP99(), 99000000 * 0.02);
+        assertEquals(99900000, snapshot.getP999(), 99900000 * 0.02);
+        assertEquals(100000000, snapshot.getMax());
+    }
+
+    @Test
+    public void testOutOfRangeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+
+        assertEquals(0, snapshot.getMin());
+        assertEquals(Histogram.MAX_VALUE, snapshot.getMax());
+    }
+
+    @Test
+    public void testBucketBounds() {
+        for (long value : new long[] {0, 63, 64, 127, 128, 1000, 123456789, Histogram.MAX_VALUE}) {
+            int index = Histogram.bucketIndex(value);
+            long lower = Histogram.bucketLowerBound(index);
+            assertTrue(lower <= value);
+            assertTrue(value < lower + Histogram.bucketWidth(index));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+    @Test
+    public void testCounter() {
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        metrics.counter("test").increment();
+        metrics.counter("test").add(2);
+
+        assertSame(metrics.counter("test"), metrics.counter("test"));
+        assertEquals(Long.valueOf(3), metrics.getCounts().get("test"));
+    }
+
+    @Test
+    public void testHistogram() {
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        metrics.histogram("b").record(5);
+        metrics.histogram("a").record(7);
+
+        assertArrayEquals(new String[] {"a", "b"}, metrics.getSnapshots().keySet().toArray());
+        assertEquals(5, metrics.getSnapshots().get("b").getMax());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AnalyzedTextTest {
+
+    @Test
+    public void testTokens() {
+        AnalyzedText text = new AnalyzedText("What is the Stock price of IBM?");
+
+        assertEquals(8, text.getTokenCount());
+        assertEquals("Stock", text.getTokens().get(3));
+        assertEquals("stock", text.getNormalizedToken(3));
+        assertEquals("?", text.getNormalizedToken(7));
+        assertEquals("what is the stock price of ibm?", text.getLowerCaseText());
+    }
+
+    @Test
+    public void testSpans() {
+        String str = "  Hello, Dorset's  world";
+        AnalyzedText text = new AnalyzedText(str);
+
+        assertEquals(4, text.getTokenCount());
+        for (int i = 0; i < text.getTokenCount(); i++) {
+            assertEquals(text.getTokens().get(i),
+                            str.substring(text.getTokenStart(i), text.getTokenEnd(i)));
+        }
+        assertEquals(2, text.getTokenStart(0));
+        assertEquals(19, text.getTokenStart(3));
+    }
+
+    @Test
+    public void testWords() {
+        AnalyzedText text = new AnalyzedText("George, an athlete, ran a marathon yesterday.");
+
+        assertEquals(Arrays.asList("George", "an", "athlete", "ran", "a", "marathon", "yesterday"),
+                        text.getWords());
+        assertTrue(text.isWord(0));
+        assertFalse(text.isWord(1));
+    }
+
+    @Test
+    public void testContainsToken() {
+        AnalyzedText text = new AnalyzedText("Tell me the WEATHER");
+
+        assertTrue(text.containsToken("weather"));
+        assertFalse(text.containsToken("WEATHER"));
+        assertFalse(text.containsToken("whether"));
+    }
+
+    @Test
+    public void testEmptyText() {
+        AnalyzedText text = new AnalyzedText("   ");
+
+        assertEquals(0, text.getTokenCount());
+        assertTrue(text.getWords().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTokensAreUnmodifiable() {
+        new AnalyzedText("hello world").getNormalizedTokens().set(0, "goodbye");
+    }
+
+    @Test
+    public void testTokenIds() {
+        Vocabulary vocabulary = new Vocabulary();
+        vocabulary.intern("stock");
+        AnalyzedText text = new AnalyzedText("Stock price");
+
+        int[] ids = text.getTokenIds(vocabulary);
+        assertArrayEquals(new int[]{0, Vocabulary.UNKNOWN}, ids);
+        assertSame(ids, text.getTokenIds(vocabulary));
+
+        vocabulary.intern("price");
+        assertArrayEquals(new int[]{0, 1}, text.getTokenIds(vocabulary));
+    }
+}
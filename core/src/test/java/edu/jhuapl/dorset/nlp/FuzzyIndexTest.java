@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FuzzyIndexTest {
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, FuzzyIndex.distance("stocks", "stocks", 2));
+        assertEquals(1, FuzzyIndex.distance("stcoks", "stocks", 2));
+        assertEquals(1, FuzzyIndex.distance("wether", "weather", 2));
+        assertEquals(1, FuzzyIndex.distance("wheather", "weather", 2));
+        assertEquals(2, FuzzyIndex.distance("kitten", "sittin", 2));
+        assertEquals(3, FuzzyIndex.distance("kitten", "sitting", 2));
+        assertEquals(2, FuzzyIndex.distance("abc", "abcdefg", 1));
+    }
+
+    @Test
+    public void testFind() {
+        FuzzyIndex index = new FuzzyIndex.Builder()
+                        .add("stocks", 1, 1).add("weather", 2, 2).add("calculate", 3, 1).build();
+
+        assertEquals(1, index.find("stcoks"));
+        assertEquals(2, index.find("wether"));
+        assertEquals(2, index.find("wheathr"));
+        assertEquals(3, index.find("calcualte"));
+        assertEquals(Vocabulary.UNKNOWN, index.find("stoke"));
+        assertEquals(Vocabulary.UNKNOWN, index.find("calclate2"));
+        assertEquals(Vocabulary.UNKNOWN, index.find("hello"));
+    }
+
+    @Test
+    public void testShortWordsMatchExactly() {
+        FuzzyIndex index = new FuzzyIndex.Builder().add("tie", 1, 2).add("time", 2, 2).build();
+
+        assertEquals(Vocabulary.UNKNOWN, index.find("the"));
+        assertEquals(2, index.find("tme"));
+        assertEquals(Vocabulary.UNKNOWN, index.find("tm"));
+    }
+
+    @Test
+    public void testClosestWordWins() {
+        FuzzyIndex index = new FuzzyIndex.Builder()
+                        .add("weather", 1, 2).add("leather", 2, 2).add("feather", 3, 2).build();
+
+        assertEquals(1, index.find("weathr"));
+        assertEquals(2, index.find("lather"));
+        // equally close words go to the first one added
+        assertEquals(1, index.find("eather"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistanceTooLarge() {
+        new FuzzyIndex.Builder().add("weather", 1, 3);
+    }
+
+    @Test
+    public void testDeletions() {
+        assertEquals(1, FuzzyIndex.deletions("abc", 0).size());
+        assertEquals(4, FuzzyIndex.deletions("abc", 1).size());
+        // deleting either l of "all" gives the same variant
+        assertEquals(3, FuzzyIndex.deletions("all", 1).size());
+    }
+}
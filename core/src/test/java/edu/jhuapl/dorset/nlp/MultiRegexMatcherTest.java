@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MultiRegexMatcherTest {
+
+    @Test
+    public void testMatch() {
+        MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>()
+                        .add(".*time.*", "clock").add("^\\d+ \\+ \\d+$", "calculator")
+                        .add("[a-z]+", "word").build();
+
+        assertEquals(Arrays.asList("clock"), matcher.match("What time is it?"));
+        assertEquals(Arrays.asList("calculator"), matcher.match("2 + 3"));
+        assertEquals(Arrays.asList("word"), matcher.match("hello"));
+        assertEquals(Collections.emptyList(), matcher.match("Time?"));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>(
+                        Pattern.CASE_INSENSITIVE).add("what is the stock price.*", "stocks").build();
+
+        assertEquals(Arrays.asList("stocks"), matcher.match("WHAT IS THE Stock Price of IBM?"));
+    }
+
+    @Test
+    public void testAlternativesAndOptionalParts() {
+        MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>()
+                        .add("(who|what) is .*", "a").add("colou?r", "b").add("tweet|post", "c")
+                        .add("x*y{0,2}", "d").add("\\Qa.b\\E?", "e").build();
+
+        assertEquals(Arrays.asList("a"), matcher.match("who is there"));
+        assertEquals(Arrays.asList("b"), matcher.match("color"));
+        assertEquals(Arrays.asList("b"), matcher.match("colour"));
+        assertEquals(Arrays.asList("c"), matcher.match("post"));
+        assertEquals(Arrays.asList("d"), matcher.match(""));
+        assertEquals(Arrays.asList("e"), matcher.match("a."));
+    }
+
+    @Test
+    public void testValueOrderIsDeclarationOrder() {
+        MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>()
+                        .add(".*b.*", "second").add(".*a.*", "first").add(".*c.*", "second").build();
+
+        assertEquals(Arrays.asList("second", "first"), matcher.match("abc"));
+        assertEquals(Arrays.asList("second", "first"), matcher.getValues());
+    }
+
+    @Test
+    public void testExtractLiterals() {
+        assertEquals(Arrays.asList("the weather"), RegexLiterals.extract(".*the weather.*"));
+        assertEquals(Arrays.asList("foo", "bar"), RegexLiterals.extract("foo|.*bar"));
+        assertEquals(Arrays.asList(" degrees"), RegexLiterals.extract("\\d+ degrees"));
+        assertEquals(Arrays.asList("abc"), RegexLiterals.extract("a(b)?abc+d?"));
+        assertEquals(Arrays.asList("a.b"), RegexLiterals.extract("\\Qa.b\\E"));
+        assertEquals(Arrays.asList("2 + 3"), RegexLiterals.extract("2 \\+ 3"));
+        assertNull(RegexLiterals.extract("foo|.*"));
+        assertNull(RegexLiterals.extract("[a-z]+"));
+        assertNull(RegexLiterals.extract("(?x) foo bar"));
+    }
+
+    @Test
+    public void testExtractLiteralsSkipsCharacterCodes() {
+        assertEquals(Arrays.asList("BC"), RegexLiterals.extract("\\x41BC"));
+        assertEquals(Arrays.asList("bc"), RegexLiterals.extract("\\x{41}bc"));
+        assertEquals(Arrays.asList("bc"), RegexLiterals.extract("\\u0041bc"));
+        assertEquals(Arrays.asList("bc"), RegexLiterals.extract("\\0101bc"));
+        assertEquals(Arrays.asList("xyz"), RegexLiterals.extract("\\cAxyz"));
+        assertEquals(Arrays.asList(" is "), RegexLiterals.extract("\\p{Lu} is \\P{L}"));
+        assertEquals(Arrays.asList(" "), RegexLiterals.extract("(?<w>\\w+) \\k<w>"));
+        assertEquals(Arrays.asList(" "), RegexLiterals.extract("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)(k) \\11"));
+        assertEquals(Arrays.asList("b"), RegexLiterals.extract("a\\Q\\E?b"));
+        assertEquals(Arrays.asList("ab"), RegexLiterals.extract("a\\Q\\Eb"));
+        assertEquals(Arrays.asList("end"), RegexLiterals.extract("[\\Q]\\E]end"));
+    }
+
+    @Test
+    public void testMatchWithCharacterCodes() {
+        String[] regexes = {"\\x41BC", "\\u0041bc", "\\0101bc", "\\cAxyz", "(?<w>\\w+) \\k<w>",
+            "a\\Q\\E?b"};
+        String[] texts = {"ABC", "Abc", "Abc", "\u0001xyz", "hi hi", "b"};
+        for (int i = 0; i < regexes.length; i++) {
+            assertTrue(Pattern.matches(regexes[i], texts[i]));
+            MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>()
+                            .add(regexes[i], "value").build();
+            assertEquals(regexes[i], Arrays.asList("value"), matcher.match(texts[i]));
+        }
+    }
+
+    @Test
+    public void testScore() {
+        MultiRegexMatcher<String> matcher = new MultiRegexMatcher.Builder<String>()
+                        .add(".*time.*", "a").add("what time is it", "b").add("[0-9]+", "c").build();
+
+        double[] scores = matcher.score("what time is it");
+
+        assertEquals(1.0, scores[1], 0.0001);
+        assertEquals(5.0 / 16, scores[0], 0.0001);
+        assertEquals(0.0, scores[2], 0.0);
+        assertEquals(0, RegexLiterals.countLiteralChars(".*|abc"));
+        assertEquals(2, RegexLiterals.countLiteralChars("a+b?c|def"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class PhraseMatcherTest {
+
+    @Test
+    public void testSingleWords() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("time", "clock").add("date", "clock").add("tweet", "twitter").build();
+
+        assertEquals(Arrays.asList("clock"), matcher.match(new AnalyzedText("What's the date?")));
+        assertEquals(Arrays.asList("clock", "twitter"),
+                        matcher.match(new AnalyzedText("Tweet the TIME")));
+        assertEquals(Collections.emptyList(), matcher.match(new AnalyzedText("timer")));
+    }
+
+    @Test
+    public void testOverlappingPhrases() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("new york city", "a").add("york", "b").add("city hall", "c")
+                        .add("new jersey", "d").build();
+
+        assertEquals(Arrays.asList("a", "b", "c"),
+                        matcher.match(new AnalyzedText("new york city hall")));
+        assertEquals(Arrays.asList("b"), matcher.match(new AnalyzedText("new new york")));
+        assertEquals(Arrays.asList("d"), matcher.match(new AnalyzedText("new new jersey")));
+    }
+
+    @Test
+    public void testValueOrder() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("one", "first").add("two", "second").add("three", "first").build();
+
+        assertEquals(Arrays.asList("first", "second"),
+                        matcher.match(new AnalyzedText("three two")));
+        assertEquals(Arrays.asList("first", "second"), matcher.getValues());
+    }
+
+    @Test
+    public void testEmptyPhraseIgnored() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>().add("  ", "x").build();
+
+        assertTrue(matcher.getValues().isEmpty());
+        assertTrue(matcher.match(new AnalyzedText("anything")).isEmpty());
+    }
+
+    @Test
+    public void testScore() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("price", "a").add("stock price", "b").add("ibm", "c").build();
+
+        assertArrayEquals(new int[]{2, 2, 0}, matcher.score(new AnalyzedText("price and stock price")));
+    }
+
+    @Test
+    public void testFuzzyPhrase() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("stock price", "stocks", 1).add("weather", "weather").build();
+
+        assertEquals(Arrays.asList("stocks"),
+                        matcher.match(new AnalyzedText("the stcok pirce of IBM")));
+        assertEquals(Arrays.asList("stocks"),
+                        matcher.match(Arrays.asList("stock", "prices")));
+        assertEquals(Collections.emptyList(), matcher.match(new AnalyzedText("wether")));
+    }
+
+    @Test
+    public void testFuzzyWordOnlyCorrectsItsPhrase() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("stock price", "stocks").add("price", "prices", 1).build();
+
+        assertEquals(Arrays.asList("prices"), matcher.match(new AnalyzedText("stock prise")));
+        assertArrayEquals(new int[]{0, 1}, matcher.score(new AnalyzedText("stock prise")));
+        assertEquals(Arrays.asList("stocks", "prices"),
+                        matcher.match(new AnalyzedText("stock price")));
+    }
+
+    @Test
+    public void testFuzzyDistanceIsPerPhrase() {
+        PhraseMatcher<String> matcher = new PhraseMatcher.Builder<String>()
+                        .add("forecast", "near", 1).add("forecast", "far", 2).build();
+
+        assertEquals(Arrays.asList("near", "far"), matcher.match(new AnalyzedText("forcast")));
+        assertEquals(Arrays.asList("far"), matcher.match(new AnalyzedText("forcst")));
+    }
+}
@@ -73,4 +73,41 @@ public class RuleBasedTokenizerTest {
         assertEquals("4,305.7", tokens[3]);
     }
 
+    @Test
+    public void testTokenizeWithRepeatedPunctuation() {
+        String testString = "Really?! (yes)";
+        Tokenizer tokenizer = new RuleBasedTokenizer();
+
+        String[] tokens = tokenizer.tokenize(testString);
+
+        assertArrayEquals(new String[]{"Really", "?", "!", "(", "yes", ")"}, tokens);
+    }
+
+    @Test
+    public void testTokenizeWithContractionAtStart() {
+        String testString = "I'm here";
+        Tokenizer tokenizer = new RuleBasedTokenizer(true);
+
+        String[] tokens = tokenizer.tokenize(testString);
+
+        assertArrayEquals(new String[]{"I'm", "here"}, tokens);
+    }
+
+    @Test
+    public void testTokenizeSpans() {
+        String testString = "  Hi, Bob. ";
+        SpanTokenizer tokenizer = new RuleBasedTokenizer();
+        TokenSpans spans = new TokenSpans();
+
+        tokenizer.tokenize(testString, spans);
+
+        assertEquals(4, spans.size());
+        assertEquals(2, spans.getStart(0));
+        assertEquals(4, spans.getEnd(0));
+        assertEquals(",", spans.getToken(testString, 1));
+        assertEquals("Bob", spans.getToken(testString, 2));
+        assertEquals(9, spans.getStart(3));
+        assertEquals(10, spans.getEnd(3));
+    }
+
 }
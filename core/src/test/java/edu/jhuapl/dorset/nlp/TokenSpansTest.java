@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.nlp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TokenSpansTest {
+
+    @Test
+    public void testGrow() {
+        TokenSpans spans = new TokenSpans(1);
+
+        for (int i = 0; i < 10; i++) {
+            spans.visit(i, i + 1);
+        }
+
+        assertEquals(10, spans.size());
+        assertEquals(9, spans.getStart(9));
+        assertEquals(10, spans.getEnd(9));
+    }
+
+    @Test
+    public void testClear() {
+        TokenSpans spans = new TokenSpans();
+        spans.visit(0, 3);
+        spans.clear();
+        spans.visit(4, 7);
+
+        assertEquals(1, spans.size());
+        assertArrayEquals(new String[]{"bar"}, spans.toStrings("foo bar"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() {
+        TokenSpans spans = new TokenSpans();
+        spans.visit(0, 3);
+
+        spans.getStart(1);
+    }
+}
@@ -34,4 +34,27 @@ public class WhiteSpaceTokenizerTest {
         assertEquals("life.", tokens[10]);
     }
 
+    @Test
+    public void testTokenizeWithExtraWhiteSpace() {
+        String testString = "  Today\tis \n the day ";
+        Tokenizer tokenizer = new WhiteSpaceTokenizer();
+
+        String[] tokens = tokenizer.tokenize(testString);
+
+        assertArrayEquals(new String[]{"Today", "is", "the", "day"}, tokens);
+    }
+
+    @Test
+    public void testTokenizeSpans() {
+        StringBuilder text = new StringBuilder("one  two");
+        SpanTokenizer tokenizer = new WhiteSpaceTokenizer();
+        TokenSpans spans = new TokenSpans();
+
+        tokenizer.tokenize(text, spans);
+
+        assertEquals(2, spans.size());
+        assertEquals(5, spans.getStart(1));
+        assertEquals(8, spans.getEnd(1));
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdmissionControlTest {
+    @Test
+    public void testFixedLimit() {
+        AdmissionControl admission = new AdmissionControl(2);
+
+        assertTrue(admission.tryAcquire());
+        assertTrue(admission.tryAcquire());
+        assertFalse(admission.tryAcquire());
+        assertEquals(2, admission.getInFlight());
+
+        admission.release(0, true);
+        assertEquals(1, admission.getInFlight());
+        assertTrue(admission.tryAcquire());
+        assertEquals(2, admission.getLimit());
+    }
+
+    @Test
+    public void testRetryAfter() {
+        AdmissionControl admission = new AdmissionControl(1);
+        assertEquals(AdmissionControl.DEFAULT_RETRY_AFTER, admission.getRetryAfter(TimeUnit.SECONDS));
+
+        admission.setRetryAfter(3, TimeUnit.SECONDS);
+
+        assertEquals(3000, admission.getRetryAfter(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAimdIncreasesLimit() {
+        AimdAdmissionControl admission = new AimdAdmissionControl(2, 1, 3, 100, TimeUnit.MILLISECONDS);
+
+        complete(admission, 2, TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(3, admission.getLimit());
+
+        complete(admission, 6, TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(3, admission.getLimit());
+    }
+
+    @Test
+    public void testAimdDecreasesLimit() {
+        AimdAdmissionControl admission = new AimdAdmissionControl(20, 5, 100, 100, TimeUnit.MILLISECONDS);
+        admission.setBackoffRatio(0.5);
+
+        complete(admission, 1, TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertEquals(10, admission.getLimit());
+
+        complete(admission, 1, 0, false);
+        assertEquals(5, admission.getLimit());
+
+        complete(admission, 1, 0, false);
+        assertEquals(5, admission.getLimit());
+    }
+
+    @Test
+    public void testAimdDecreasesOncePerRoundTrip() {
+        AimdAdmissionControl admission = new AimdAdmissionControl(20, 5, 100, 100, TimeUnit.MILLISECONDS);
+        admission.setBackoffRatio(0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(admission.tryAcquire());
+        }
+
+        for (int i = 0; i < 4; i++) {
+            admission.release(TimeUnit.SECONDS.toNanos(10), true);
+        }
+        assertEquals(10, admission.getLimit());
+
+        complete(admission, 1, TimeUnit.MILLISECONDS.toNanos(500), false);
+        assertEquals(10, admission.getLimit());
+
+        complete(admission, 1, 0, false);
+        assertEquals(5, admission.getLimit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimits() {
+        new AimdAdmissionControl(1, 2, 3, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private void complete(AdmissionControl admission, int count, long latency, boolean success) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(admission.tryAcquire());
+            admission.release(latency, success);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.config.MultiValuedMap;
+import edu.jhuapl.dorset.routing.RouterAgentConfig;
+
+public class BulkheadRegistryTest {
+    @Test
+    public void testConfig() {
+        Agent slow = mock(Agent.class);
+        when(slow.getName()).thenReturn("slow");
+        Agent fast = mock(Agent.class);
+        when(fast.getName()).thenReturn("fast");
+        MultiValuedMap slowParams = new MultiValuedMap();
+        slowParams.putString(BulkheadRegistry.MAX_CONCURRENT_CALLS, "4");
+        slowParams.putString(BulkheadRegistry.THREADS, "2");
+        MultiValuedMap fastParams = new MultiValuedMap();
+        fastParams.putString("keywords", "calculate");
+        RouterAgentConfig config = RouterAgentConfig.create().add(slow, slowParams).add(fast, fastParams);
+
+        BulkheadRegistry registry = new BulkheadRegistry(config);
+
+        assertEquals(4, registry.get(slow).getMaxConcurrentCalls());
+        assertNotNull(registry.get(slow).getExecutor());
+        assertNull(registry.get(fast));
+        registry.shutdown();
+    }
+
+    @Test
+    public void testAdd() {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn("agent");
+
+        BulkheadRegistry registry = new BulkheadRegistry().add(agent, 1, 0);
+
+        assertEquals(1, registry.get(agent).getMaxConcurrentCalls());
+        assertNull(registry.get(agent).getExecutor());
+    }
+}
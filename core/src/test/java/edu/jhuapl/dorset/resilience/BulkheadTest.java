@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BulkheadTest {
+    @Test
+    public void testLimitsConcurrentCalls() {
+        Bulkhead bulkhead = new Bulkhead(2);
+
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(0, bulkhead.getAvailableCalls());
+
+        bulkhead.release();
+        assertTrue(bulkhead.tryAcquire());
+    }
+
+    @Test
+    public void testSharedExecutor() {
+        Bulkhead bulkhead = new Bulkhead(2);
+
+        assertNull(bulkhead.getExecutor());
+    }
+
+    @Test
+    public void testDedicatedExecutor() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2, 1, "test");
+
+        String name = bulkhead.getExecutor().submit(() -> Thread.currentThread().getName()).get();
+
+        assertEquals("dorset-test-1", name);
+        bulkhead.shutdown();
+        assertTrue(bulkhead.getExecutor().isShutdown());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() {
+        new Bulkhead(0);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.resilience;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.resilience.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+    @Test
+    public void testOpensAfterFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, Long.MAX_VALUE, TimeUnit.MINUTES);
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, Long.MAX_VALUE, TimeUnit.MINUTES);
+
+        breaker.recordFailure();
+        breaker.recordSuccess(0);
+        breaker.recordFailure();
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getFailureCount());
+    }
+
+    @Test
+    public void testSlowCallIsFailure() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 100, TimeUnit.MILLISECONDS);
+
+        breaker.recordSuccess(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        breaker.recordFailure();
+        Thread.sleep(5);
+
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess(0);
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void testFailedTrialReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        Thread.sleep(5);
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testIgnoredTrialAllowsAnotherTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        breaker.recordFailure();
+        Thread.sleep(5);
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordIgnored();
+
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.metrics.MetricsRegistry;
+
+public class CachingRouterTest {
+
+    @Test
+    public void testCachedDecision() {
+        Agent agent = mock(Agent.class);
+        Router router = mock(Router.class);
+        when(router.rank(any(Request.class))).thenReturn(ScoredAgent.of(new Agent[]{agent}));
+        CachingRouter cachingRouter = new CachingRouter(router);
+
+        assertArrayEquals(new Agent[]{agent}, cachingRouter.route(new Request("What time is it")));
+        assertArrayEquals(new Agent[]{agent}, cachingRouter.route(new Request("what TIME is it")));
+
+        verify(router, times(1)).rank(any(Request.class));
+        assertEquals(1, cachingRouter.getHits());
+        assertEquals(1, cachingRouter.getMisses());
+        assertEquals(0.5, cachingRouter.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testReturnedArrayIsCopied() {
+        Agent agent = mock(Agent.class);
+        Router router = mock(Router.class);
+        when(router.rank(any(Request.class))).thenReturn(ScoredAgent.of(new Agent[]{agent}));
+        CachingRouter cachingRouter = new CachingRouter(router);
+
+        cachingRouter.route(new Request("hello"))[0] = null;
+
+        assertSame(agent, cachingRouter.route(new Request("hello"))[0]);
+    }
+
+    @Test
+    public void testInvalidate() {
+        Router router = mock(Router.class);
+        when(router.rank(any(Request.class))).thenReturn(ScoredAgent.of(new Agent[0]));
+        CachingRouter cachingRouter = new CachingRouter(router);
+        cachingRouter.route(new Request("one"));
+        cachingRouter.route(new Request("two"));
+
+        cachingRouter.invalidate("ONE");
+        assertEquals(1, cachingRouter.size());
+        cachingRouter.invalidate();
+        assertEquals(0, cachingRouter.size());
+        assertEquals(0, cachingRouter.getSizeInBytes());
+
+        cachingRouter.route(new Request("two"));
+        verify(router, times(3)).rank(any(Request.class));
+    }
+
+    @Test
+    public void testMemoryBound() {
+        Router router = mock(Router.class);
+        when(router.rank(any(Request.class))).thenReturn(ScoredAgent.of(new Agent[0]));
+        long maxBytes = 16 * 2 * CachingRouter.estimateSize("request 000", new ScoredAgent[0]);
+        CachingRouter cachingRouter = new CachingRouter(router, maxBytes);
+
+        for (int i = 0; i < 1000; i++) {
+            cachingRouter.route(new Request(String.format("request %03d", i)));
+        }
+
+        assertTrue(cachingRouter.getSizeInBytes() <= maxBytes);
+        assertTrue(cachingRouter.size() < 1000);
+        assertEquals(1000 - cachingRouter.size(), cachingRouter.getEvictions());
+    }
+
+    @Test
+    public void testMetricsRegistry() {
+        Router router = mock(Router.class);
+        when(router.rank(any(Request.class))).thenReturn(ScoredAgent.of(new Agent[0]));
+        MetricsRegistry metrics = new MetricsRegistry();
+        CachingRouter cachingRouter = new CachingRouter(router);
+        cachingRouter.setMetrics(metrics);
+
+        cachingRouter.route(new Request("one"));
+        cachingRouter.route(new Request("one"));
+
+        assertEquals(Long.valueOf(1), metrics.getCounts().get(CachingRouter.HITS_METRIC));
+        assertEquals(Long.valueOf(1), metrics.getCounts().get(CachingRouter.MISSES_METRIC));
+    }
+}
@@ -19,6 +19,11 @@ package edu.jhuapl.dorset.routing;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 
 import edu.jhuapl.dorset.Request;
@@ -56,4 +61,88 @@ public class ChainedRouterTest {
         assertArrayEquals(resp1, router.route(request));
     }
 
+    @Test
+    public void testRankWithFirstEmptyResponse() {
+        Router r1 = mock(Router.class);
+        Router r2 = mock(Router.class);
+        ScoredAgent[] resp = {new ScoredAgent(mock(Agent.class), 0.5)};
+        Request request = mock(Request.class);
+        when(r1.rank(request)).thenReturn(new ScoredAgent[0]);
+        when(r2.rank(request)).thenReturn(resp);
+        Router router = new ChainedRouter(r1, r2);
+
+        assertArrayEquals(resp, router.rank(request));
+    }
+
+    @Test
+    public void testConcurrentRouteUsesChainOrder() {
+        Router r1 = mock(Router.class);
+        Router r2 = mock(Router.class);
+        Router r3 = mock(Router.class);
+        Agent a2 = mock(Agent.class);
+        Agent a3 = mock(Agent.class);
+        Request request = new Request("hello");
+        when(r1.route(request)).thenReturn(new Agent[0]);
+        when(r2.route(request)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return new Agent[]{a2};
+        });
+        when(r3.route(request)).thenReturn(new Agent[]{a3});
+        ChainedRouter router = new ChainedRouter(r1, r2, r3);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        router.setExecutor(executor);
+
+        try {
+            assertArrayEquals(new Agent[]{a2}, router.route(request));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentRouteWithNoMatch() {
+        Router r1 = mock(Router.class);
+        Router r2 = mock(Router.class);
+        Request request = new Request("hello");
+        when(r1.rank(request)).thenReturn(new ScoredAgent[0]);
+        when(r2.rank(request)).thenReturn(new ScoredAgent[0]);
+        ChainedRouter router = new ChainedRouter(r1, r2);
+        router.setExecutor(Runnable::run);
+
+        assertEquals(0, router.rank(request).length);
+        verify(r2).rank(request);
+    }
+
+    @Test
+    public void testConcurrentRouteCancelsLowerPriorityRouters() {
+        Router r1 = mock(Router.class);
+        Router r2 = mock(Router.class);
+        Agent agent = mock(Agent.class);
+        Request request = new Request("hello");
+        when(r1.route(request)).thenReturn(new Agent[]{agent});
+        List<Runnable> queued = new ArrayList<Runnable>();
+        ChainedRouter router = new ChainedRouter(r1, r2);
+        router.setExecutor(queued::add);
+
+        assertArrayEquals(new Agent[]{agent}, router.route(request));
+        for (Runnable task : queued) {
+            task.run();
+        }
+
+        verify(r2, never()).route(request);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConcurrentRouteRethrowsRouterException() {
+        Router r1 = mock(Router.class);
+        Router r2 = mock(Router.class);
+        Request request = new Request("hello");
+        when(r1.route(request)).thenReturn(new Agent[0]);
+        when(r2.route(request)).thenThrow(new IllegalStateException());
+        ChainedRouter router = new ChainedRouter(r1, r2);
+        router.setExecutor(Runnable::run);
+
+        router.route(request);
+    }
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.ResponseStatus;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.agents.Description;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
+import edu.jhuapl.dorset.reporting.Report;
+import edu.jhuapl.dorset.reporting.ReportQuery;
+import edu.jhuapl.dorset.reporting.Reporter;
+
+public class ClassifierRouterTest {
+
+    private static Agent createAgent(String name, String... examples) {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn(name);
+        when(agent.getDescription()).thenReturn(new Description(name, name, examples));
+        return agent;
+    }
+
+    private static Report createReport(String agentName, String text, ResponseStatus.Code code) {
+        Report report = new Report();
+        report.setAgentName(agentName);
+        report.setRequestText(text);
+        report.setResponseCode(code.getValue());
+        return report;
+    }
+
+    @Test
+    public void testRouteFromExamples() {
+        Agent weather = createAgent("weather", "What is the weather in Boston?",
+                        "Will it rain tomorrow?", "weather forecast for the weekend");
+        Agent calculator = createAgent("calculator", "What is 2 plus 2?",
+                        "calculate the square root of 9", "multiply 6 by 7");
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather, calculator});
+
+        assertArrayEquals(new Agent[]{weather},
+                        router.route(new Request("what's the weather forecast")));
+        assertArrayEquals(new Agent[]{calculator}, router.route(new Request("multiply 3 by 4")));
+        ScoredAgent[] ranked = router.rank(new Request("will it rain in Boston"));
+        assertSame(weather, ranked[0].getAgent());
+        assertTrue(ranked[0].getScore() > 0.5);
+    }
+
+    @Test
+    public void testUnknownRequestIsNotRouted() {
+        Agent weather = createAgent("weather", "weather forecast");
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather});
+
+        assertEquals(0, router.route(new Request("tell me a joke")).length);
+        assertEquals(0, router.route(new Request("")).length);
+    }
+
+    @Test
+    public void testAgentWithoutExamples() {
+        Agent weather = createAgent("weather", "weather forecast");
+        Agent other = mock(Agent.class);
+        when(other.getName()).thenReturn("other");
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather, other});
+
+        assertArrayEquals(new Agent[]{weather}, router.route(new Request("weather")));
+        assertArrayEquals(new Agent[]{weather, other}, router.getAgents());
+    }
+
+    @Test
+    public void testTrainFromReports() {
+        Agent weather = createAgent("weather", "weather forecast");
+        Agent stocks = createAgent("stocks", "stock price of IBM");
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather, stocks});
+        assertEquals(0, router.route(new Request("how is the nasdaq doing")).length);
+
+        router.train(new Report[]{
+            createReport("stocks", "how is the nasdaq doing today", ResponseStatus.Code.SUCCESS),
+            createReport("weather", "nasdaq", ResponseStatus.Code.AGENT_DID_NOT_KNOW_ANSWER),
+            createReport("unknown", "nasdaq", ResponseStatus.Code.SUCCESS)});
+
+        assertArrayEquals(new Agent[]{stocks}, router.route(new Request("how is the nasdaq doing")));
+    }
+
+    @Test
+    public void testTrainInBackground() throws Exception {
+        Agent weather = createAgent("weather", "weather forecast");
+        Agent stocks = createAgent("stocks", "stock price of IBM");
+        Reporter reporter = mock(Reporter.class);
+        when(reporter.retrieve(any(ReportQuery.class))).thenReturn(new Report[]{
+            createReport("stocks", "nasdaq", ResponseStatus.Code.SUCCESS)});
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather, stocks});
+
+        router.trainInBackground(reporter, new ReportQuery(), Runnable::run).get();
+
+        assertArrayEquals(new Agent[]{stocks}, router.route(new Request("nasdaq")));
+    }
+
+    @Test
+    public void testMinConfidence() {
+        Agent weather = createAgent("weather", "weather forecast");
+        Agent news = createAgent("news", "news forecast");
+        ClassifierRouter router = new ClassifierRouter(new Agent[]{weather, news});
+
+        assertEquals(2, router.route(new Request("forecast")).length);
+        router.setMinConfidence(0.9);
+        assertEquals(0, router.route(new Request("forecast")).length);
+    }
+
+    @Test
+    public void testFeatures() {
+        int[] features = ClassifierRouter.features(new AnalyzedText("stock, price of IBM"), 64);
+
+        // four words and the pairs "price of" and "of ibm"
+        assertEquals(6, features.length);
+        for (int feature : features) {
+            assertTrue(feature >= 0 && feature < 64);
+        }
+    }
+}
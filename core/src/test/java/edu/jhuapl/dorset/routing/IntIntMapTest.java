@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class IntIntMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        IntIntMap map = new IntIntMap();
+        map.put(3, 30);
+        map.put(0, 0);
+        map.put(3, 33);
+
+        assertEquals(2, map.size());
+        assertEquals(33, map.get(3, -1));
+        assertEquals(0, map.get(0, -1));
+        assertEquals(-1, map.get(7, -1));
+        assertEquals(-1, map.get(-1, -1));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void testGrow() {
+        IntIntMap map = new IntIntMap(1);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 7, i);
+        }
+
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 7, -1));
+        }
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeKey() {
+        new IntIntMap().put(-5, 1);
+    }
+}
@@ -19,7 +19,6 @@ package edu.jhuapl.dorset.routing;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 import edu.jhuapl.dorset.Request;
@@ -91,7 +90,7 @@ public class KeywordRouterTest {
         assertArrayEquals(expected, agents);
     }
 
-    @Ignore
+    @Test
     public void testRoutingWithPunctuation() {
         Agent agent = mock(Agent.class);
         MultiValuedMap params = new MultiValuedMap();
@@ -104,4 +103,79 @@ public class KeywordRouterTest {
         assertArrayEquals(expected, agents);
     }
 
+    @Test
+    public void testRoutingWithPhrase() {
+        Agent agent = mock(Agent.class);
+        MultiValuedMap params = new MultiValuedMap();
+        params.addString(KeywordRouter.KEYWORDS, "Stock Price");
+        Router router = new KeywordRouter(RouterAgentConfig.create().add(agent, params));
+
+        assertArrayEquals(new Agent[]{agent},
+                        router.route(new Request("What is the stock price of IBM?")));
+        assertArrayEquals(new Agent[]{},
+                        router.route(new Request("What is the price of that stock?")));
+    }
+
+    @Test
+    public void testRoutingWithSharedKeyword() {
+        Agent agent1 = mock(Agent.class);
+        MultiValuedMap params1 = new MultiValuedMap();
+        params1.addString(KeywordRouter.KEYWORDS, "weather");
+        Agent agent2 = mock(Agent.class);
+        MultiValuedMap params2 = new MultiValuedMap();
+        params2.addString(KeywordRouter.KEYWORDS, "new york");
+        params2.addString(KeywordRouter.KEYWORDS, "weather");
+        RouterAgentConfig config = RouterAgentConfig.create();
+        config.add(agent1, params1);
+        config.add(agent2, params2);
+        Router router = new KeywordRouter(config);
+
+        assertArrayEquals(new Agent[]{agent2, agent1},
+                        router.route(new Request("New York weather")));
+        assertArrayEquals(new Agent[]{agent1, agent2},
+                        router.route(new Request("weather in Boston")));
+        assertArrayEquals(new Agent[]{agent1, agent2}, router.getAgents());
+    }
+
+    @Test
+    public void testRankingByMatchedTokens() {
+        Agent price = mock(Agent.class);
+        MultiValuedMap params1 = new MultiValuedMap();
+        params1.addString(KeywordRouter.KEYWORDS, "price");
+        Agent stock = mock(Agent.class);
+        MultiValuedMap params2 = new MultiValuedMap();
+        params2.addString(KeywordRouter.KEYWORDS, "stock price");
+        RouterAgentConfig config = RouterAgentConfig.create();
+        config.add(price, params1);
+        config.add(stock, params2);
+        Router router = new KeywordRouter(config);
+
+        ScoredAgent[] ranked = router.rank(new Request("stock price of IBM"));
+
+        assertEquals(2, ranked.length);
+        assertSame(stock, ranked[0].getAgent());
+        assertEquals(0.5, ranked[0].getScore(), 0.0001);
+        assertSame(price, ranked[1].getAgent());
+        assertEquals(0.25, ranked[1].getScore(), 0.0001);
+        assertArrayEquals(new Agent[]{stock, price}, router.route(new Request("stock price of IBM")));
+    }
+
+    @Test
+    public void testMisspelledKeywords() {
+        Agent exact = mock(Agent.class);
+        MultiValuedMap params1 = new MultiValuedMap();
+        params1.addString(KeywordRouter.KEYWORDS, "calculate");
+        Agent fuzzy = mock(Agent.class);
+        MultiValuedMap params2 = new MultiValuedMap();
+        params2.addString(KeywordRouter.KEYWORDS, "weather");
+        params2.putString(KeywordRouter.MAX_EDIT_DISTANCE, "2");
+        RouterAgentConfig config = RouterAgentConfig.create();
+        config.add(exact, params1);
+        config.add(fuzzy, params2);
+        Router router = new KeywordRouter(config);
+
+        assertArrayEquals(new Agent[]{fuzzy}, router.route(new Request("what is the wether")));
+        assertArrayEquals(new Agent[]{fuzzy}, router.route(new Request("weather in Boston")));
+        assertArrayEquals(new Agent[0], router.route(new Request("calcualte 2 + 2")));
+    }
 }
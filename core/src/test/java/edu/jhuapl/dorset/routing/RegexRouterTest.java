@@ -51,4 +51,48 @@ public class RegexRouterTest {
         assertArrayEquals(expected2, agents2);
     }
 
+    @Test
+    public void testRoutingBySpecificity() {
+        Agent agent1 = mock(Agent.class);
+        MultiValuedMap params1 = new MultiValuedMap();
+        params1.addString(RegexRouter.REGEX, ".*weather.*");
+        Agent agent2 = mock(Agent.class);
+        MultiValuedMap params2 = new MultiValuedMap();
+        params2.addString(RegexRouter.REGEX, "what is the (weather|forecast).*");
+        params2.addString(RegexRouter.REGEX, ".*\\d+ degrees.*");
+
+        RouterAgentConfig config = RouterAgentConfig.create();
+        config.add(agent1, params1);
+        config.add(agent2, params2);
+        Router router = new RegexRouter(config);
+
+        Agent expected[] = new Agent[]{agent2, agent1};
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(expected, router.route(new Request("What is the WEATHER today?")));
+        }
+        assertArrayEquals(new Agent[]{agent2}, router.route(new Request("Is it 80 degrees?")));
+        assertArrayEquals(new Agent[]{agent1, agent2}, router.getAgents());
+
+        ScoredAgent[] ranked = router.rank(new Request("What is the weather today?"));
+        assertEquals(2, ranked.length);
+        assertTrue(ranked[0].getScore() > ranked[1].getScore());
+    }
+
+    @Test
+    public void testRoutingWithEqualScoresInConfigOrder() {
+        Agent agent1 = mock(Agent.class);
+        MultiValuedMap params1 = new MultiValuedMap();
+        params1.addString(RegexRouter.REGEX, ".*time.*");
+        Agent agent2 = mock(Agent.class);
+        MultiValuedMap params2 = new MultiValuedMap();
+        params2.addString(RegexRouter.REGEX, ".*date.*");
+
+        RouterAgentConfig config = RouterAgentConfig.create();
+        config.add(agent1, params1);
+        config.add(agent2, params2);
+        Router router = new RegexRouter(config);
+
+        assertArrayEquals(new Agent[]{agent1, agent2}, router.route(new Request("date and time")));
+    }
+
 }
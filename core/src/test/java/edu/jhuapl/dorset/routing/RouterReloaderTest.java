@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.config.MultiValuedMap;
+
+public class RouterReloaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReload() throws Exception {
+        Router router = mock(Router.class);
+        AtomicReference<Router> current = new AtomicReference<Router>();
+        RouterReloader reloader = new RouterReloader(() -> router, current::set);
+
+        assertNull(reloader.getRouter());
+        assertSame(router, reloader.reload());
+        assertSame(router, current.get());
+        assertSame(router, reloader.getRouter());
+        assertEquals(1, reloader.getReloadCount());
+    }
+
+    @Test
+    public void testFailedReloadKeepsOldRouter() throws Exception {
+        Router router = mock(Router.class);
+        AtomicReference<Router> current = new AtomicReference<Router>();
+        RouterReloader.Loader loader = mock(RouterReloader.Loader.class);
+        when(loader.load()).thenReturn(router).thenThrow(new IOException("bad config"));
+        RouterReloader reloader = new RouterReloader(loader, current::set);
+        reloader.reload();
+
+        try {
+            reloader.reload();
+            fail("Expected the loader exception");
+        } catch (IOException e) {
+            assertEquals("bad config", e.getMessage());
+        }
+
+        assertSame(router, current.get());
+        assertSame(router, reloader.getRouter());
+        assertEquals(1, reloader.getReloadCount());
+        assertNotNull(reloader.getLastError());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNullRouter() throws Exception {
+        new RouterReloader(() -> null, router -> { }).reload();
+    }
+
+    @Test
+    public void testWatchFile() throws Exception {
+        Agent agent = mock(Agent.class);
+        File file = folder.newFile("keywords.txt");
+        write(file, "weather");
+        AtomicReference<Router> current = new AtomicReference<Router>();
+        RouterReloader reloader = new RouterReloader(() -> {
+            MultiValuedMap params = new MultiValuedMap();
+            params.putStrings(KeywordRouter.KEYWORDS, read(file).split(","));
+            return new KeywordRouter(RouterAgentConfig.create().add(agent, params));
+        }, current::set);
+        reloader.reload();
+        assertEquals(0, current.get().route(new Request("what time is it")).length);
+
+        reloader.watch(file, 10, TimeUnit.MILLISECONDS);
+        try {
+            write(file, "weather,time");
+            file.setLastModified(file.lastModified() + 2000);
+            for (int i = 0; i < 500 && reloader.getReloadCount() < 2; i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            reloader.shutdown();
+        }
+
+        assertEquals(2, reloader.getReloadCount());
+        assertArrayEquals(new Agent[]{agent},
+                        current.get().route(new Request("what time is it")));
+    }
+
+    private static void write(File file, String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.agents.Agent;
+
+public class ScoredAgentTest {
+
+    @Test
+    public void testSortIsStable() {
+        Agent a1 = mock(Agent.class);
+        Agent a2 = mock(Agent.class);
+        Agent a3 = mock(Agent.class);
+        ScoredAgent[] scored = {new ScoredAgent(a1, 0.2), new ScoredAgent(a2, 0.8),
+            new ScoredAgent(a3, 0.2)};
+
+        ScoredAgent.sort(scored);
+
+        assertArrayEquals(new Agent[]{a2, a1, a3}, ScoredAgent.toAgents(scored));
+    }
+
+    @Test
+    public void testDefaultScore() {
+        Agent agent = mock(Agent.class);
+
+        ScoredAgent[] scored = ScoredAgent.of(new Agent[]{agent});
+
+        assertEquals(ScoredAgent.DEFAULT_SCORE, scored[0].getScore(), 0.0);
+        assertSame(agent, scored[0].getAgent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidScore() {
+        new ScoredAgent(mock(Agent.class), 1.5);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.nlp.Vocabulary;
+
+public class TokenDictionaryTest {
+
+    @Test
+    public void testTokenIds() {
+        TokenDictionary dictionary = new TokenDictionary();
+        int id = dictionary.internKeyword("TokenDictionaryTest");
+        Request request = new Request("tokendictionarytest xyzzy-unknown-token");
+
+        int[] ids = dictionary.getTokenIds(request);
+
+        assertEquals(id, ids[0]);
+        assertEquals(Vocabulary.UNKNOWN, ids[1]);
+        assertSame(ids, dictionary.getTokenIds(request));
+    }
+
+    @Test
+    public void testTokenIdsAfterIntern() {
+        TokenDictionary dictionary = new TokenDictionary();
+        Request request = new Request("tokendictionarytestlater");
+        assertEquals(Vocabulary.UNKNOWN, dictionary.getTokenIds(request)[0]);
+
+        int id = dictionary.intern("tokendictionarytestlater");
+
+        assertEquals(id, dictionary.getTokenIds(request)[0]);
+    }
+
+    @Test
+    public void testSeparateDictionaries() {
+        TokenDictionary first = new TokenDictionary();
+        TokenDictionary second = new TokenDictionary();
+        first.intern("stock");
+        first.intern("price");
+        second.intern("price");
+        Request request = new Request("stock price");
+
+        int[] firstIds = first.getTokenIds(request);
+        int[] secondIds = second.getTokenIds(request);
+
+        assertArrayEquals(new int[]{0, 1}, firstIds);
+        assertArrayEquals(new int[]{Vocabulary.UNKNOWN, 0}, secondIds);
+        assertSame(firstIds, first.getTokenIds(request));
+        assertSame(secondIds, second.getTokenIds(request));
+    }
+}
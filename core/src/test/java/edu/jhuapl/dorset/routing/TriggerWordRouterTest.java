@@ -79,4 +79,16 @@ public class TriggerWordRouterTest {
         assertEquals(1, router.getAgents().length);
     }
 
+    @Test
+    public void testRoutingWithMisspelledTrigger() {
+        Agent agent = mock(Agent.class);
+        MultiValuedMap params = new MultiValuedMap();
+        params.addString(TriggerWordRouter.TRIGGERS, "twitter");
+        params.putString(TriggerWordRouter.MAX_EDIT_DISTANCE, "1");
+        RouterAgentConfig config = RouterAgentConfig.create().add(agent, params);
+        Router router = new TriggerWordRouter(config);
+
+        assertArrayEquals(new Agent[]{agent}, router.route(new Request("twiter hello world")));
+        assertArrayEquals(new Agent[0], router.route(new Request("twittter2 hello world")));
+    }
 }
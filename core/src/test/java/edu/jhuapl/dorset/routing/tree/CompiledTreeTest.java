@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 The Johns Hopkins University Applied Physics Laboratory LLC
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.dorset.routing.tree;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import edu.jhuapl.dorset.Request;
+import edu.jhuapl.dorset.agents.Agent;
+import edu.jhuapl.dorset.nlp.AnalyzedText;
+
+public class CompiledTreeTest {
+
+    @Test
+    public void testSameResultAsWalkingTree() {
+        Agent a1 = mock(Agent.class);
+        Agent a2 = mock(Agent.class);
+        Agent a3 = mock(Agent.class);
+        LeafNode shared = new LeafNode(a3);
+        GenericKeywordNode sports = new GenericKeywordNode();
+        sports.addChild("baseball", new LeafNode(a1));
+        sports.addChild(new String[]{"football", "soccer"}, new LeafNode(a2));
+        sports.addChild("hockey", shared);
+        sports.addChild("curling", null);
+        Node root = new BinaryKeywordNode(new String[]{"score", "game"}, sports, shared);
+        CompiledTree tree = CompiledTree.compile(root);
+
+        String[] texts = {"", "?", "score", "What's the baseball score?", "Soccer game or hockey",
+            "curling score", "hockey", "GAME: Football"};
+        for (String text : texts) {
+            Node node = root;
+            Request request = new Request(text);
+            while (node != null && !node.isLeaf()) {
+                node = node.selectChild(request);
+            }
+            Agent[] expected = node == null ? new Agent[0] : node.getValue();
+            assertArrayEquals(text, expected, tree.route(new AnalyzedText(text)));
+        }
+    }
+
+    @Test
+    public void testChangedNode() {
+        GenericKeywordNode root = new GenericKeywordNode();
+        CompiledTree tree = CompiledTree.compile(root);
+
+        root.addChild("red", new LeafNode(mock(Agent.class)));
+
+        assertNull(tree.route(new AnalyzedText("red")));
+    }
+
+    @Test
+    public void testUnknownNode() {
+        Node custom = mock(Node.class);
+
+        assertNull(CompiledTree.compile(new BinaryKeywordNode("a", custom, null)));
+        assertNull(CompiledTree.compile(null));
+    }
+}
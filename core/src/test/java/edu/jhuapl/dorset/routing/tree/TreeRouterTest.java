@@ -85,4 +85,47 @@ public class TreeRouterTest {
         Router router = createBinaryTreeRouter();
         assertEquals(0, router.route(new Request("")).length);
     }
+
+    @Test
+    public void testRoutingWithGenericTree() {
+        Agent red = mock(Agent.class);
+        Agent blue = mock(Agent.class);
+        GenericKeywordNode colors = new GenericKeywordNode();
+        colors.addChild(new String[]{"red", "rose"}, new LeafNode(red));
+        colors.addChild("blue", new LeafNode(blue));
+        Router router = new TreeRouter(new BinaryKeywordNode("color", colors, null));
+
+        assertArrayEquals(new Agent[]{blue}, router.route(new Request("Color: blue or red?")));
+        assertArrayEquals(new Agent[]{red}, router.route(new Request("Rose color")));
+        assertEquals(0, router.route(new Request("What color is it")).length);
+        assertEquals(0, router.route(new Request("Red")).length);
+    }
+
+    @Test
+    public void testRoutingAfterAddingChild() {
+        Agent red = mock(Agent.class);
+        Agent green = mock(Agent.class);
+        GenericKeywordNode colors = new GenericKeywordNode();
+        colors.addChild("red", new LeafNode(red));
+        Router router = new TreeRouter(colors);
+        assertEquals(0, router.route(new Request("green")).length);
+
+        colors.addChild("green", new LeafNode(green));
+
+        assertArrayEquals(new Agent[]{green}, router.route(new Request("green")));
+    }
+
+    @Test
+    public void testRoutingWithCustomNode() {
+        final Agent agent = mock(Agent.class);
+        Node custom = new LeafNode(agent) {
+            @Override
+            public Agent[] getValue() {
+                return new Agent[]{agent, agent};
+            }
+        };
+        Router router = new TreeRouter(new BinaryKeywordNode("test", custom, null));
+
+        assertEquals(2, router.route(new Request("this is a test")).length);
+    }
 }